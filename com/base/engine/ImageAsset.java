@@ -0,0 +1,133 @@
+package com.base.engine;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+
+/**
+ * Image decoded once from file and shared by everything that needs it during an import
+ * The parser reads its alpha, the world object takes its size and the texture is uploaded from it, all without decoding the file again.
+ * Pixels are held either as packed ARGB integers or as interleaved ABGR bytes, the two layouts decoders commonly produce,
+ * so the raster can be read directly without first painting it into another image
+ * 
+ * @author Jordan
+ */
+public final class ImageAsset
+{
+    private final String reference;
+    private final BufferedImage image;
+    
+    /**
+     * Wrap an image decoded from file
+     * 
+     * @param reference Filepath the image was loaded from
+     * @param image Decoded image, of type TYPE_INT_ARGB or TYPE_4BYTE_ABGR with a raster that is not a sub-image
+     */
+    public ImageAsset(String reference, BufferedImage image)
+    {
+        this.reference = reference;
+        this.image = image;
+    }
+    
+    /**
+     * Get the filepath the image was loaded from
+     * 
+     * @return Filepath of the image
+     */
+    public String getReference()
+    {
+        return reference;
+    }
+    
+    /**
+     * Get the decoded image
+     * 
+     * @return Image of type TYPE_INT_ARGB or TYPE_4BYTE_ABGR
+     */
+    public BufferedImage getImage()
+    {
+        return image;
+    }
+    
+    /**
+     * Get the width of the image
+     * 
+     * @return Width of the image in pixels
+     */
+    public int getWidth()
+    {
+        return image.getWidth();
+    }
+    
+    /**
+     * Get the height of the image
+     * 
+     * @return Height of the image in pixels
+     */
+    public int getHeight()
+    {
+        return image.getHeight();
+    }
+    
+    /**
+     * Determine if the pixels are held as packed ARGB integers rather than interleaved ABGR bytes
+     * 
+     * @return determines if getPixels rather than getSamples holds the image's pixels
+     */
+    public boolean isPacked()
+    {
+        return image.getType() == BufferedImage.TYPE_INT_ARGB;
+    }
+    
+    /**
+     * Get the raw pixels of an image held as packed integers, without copying them
+     * Pixels are packed ARGB integers stored row by row from the top of the image, each row being exactly the width of the image
+     * 
+     * @return Backing array of the image's raster
+     */
+    public int[] getPixels()
+    {
+        return ((DataBufferInt)image.getRaster().getDataBuffer()).getData();
+    }
+    
+    /**
+     * Get the raw samples of an image held as interleaved bytes, without copying them
+     * Each pixel is four bytes in the order alpha, blue, green, red, stored row by row from the top of the image,
+     * each row being exactly the width of the image
+     * 
+     * @return Backing array of the image's raster
+     */
+    public byte[] getSamples()
+    {
+        return ((DataBufferByte)image.getRaster().getDataBuffer()).getData();
+    }
+    
+    /**
+     * Determine if an image can be wrapped as it is, reading its raster directly
+     * 
+     * @param image Decoded image we are checking
+     * @return determines if the image is one of the two layouts an asset holds, starting at the beginning of its backing array
+     */
+    public static boolean canWrap(BufferedImage image)
+    {
+        int type = image.getType();
+        if(type != BufferedImage.TYPE_INT_ARGB && type != BufferedImage.TYPE_4BYTE_ABGR)
+        {
+            return false;
+        }
+        
+        //sub-images share their parent's array, so their rows don't start where the pixel arrays expect
+        Raster raster = image.getRaster();
+        if(raster.getDataBuffer().getOffset() != 0 || raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0)
+        {
+            return false;
+        }
+        if(type == BufferedImage.TYPE_INT_ARGB)
+        {
+            return raster.getDataBuffer().getSize() == image.getWidth() * image.getHeight();
+        }
+        return ((ComponentSampleModel)raster.getSampleModel()).getScanlineStride() == image.getWidth() * 4;
+    }
+}
@@ -0,0 +1,275 @@
+package com.base.engine;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Least recently used cache of decoded images and the textures uploaded from them, bounded by the bytes they take up
+ * Entries are keyed by the canonical path of their file and remember when the file was last modified,
+ * so an image edited on disk is decoded again rather than served stale.
+ * When the cache goes over budget the least recently used entries are dropped along with the cache's reference to their textures.
+ * A texture is only deleted from OpenGL once every sprite using it has released it too,
+ * so the cache must only be used from the thread that owns the OpenGL context once textures are in it
+ * 
+ * @author Jordan
+ */
+final class ImageCache
+{
+    private final long budget;
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long textureHits = 0;
+    private long textureMisses = 0;
+    //iterates from least to most recently used
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    
+    /**
+     * Create an empty cache
+     * 
+     * @param budget Most bytes of image and texture data kept at once
+     */
+    ImageCache(long budget)
+    {
+        this.budget = budget;
+    }
+    
+    /**
+     * Look up the decoded image of a file
+     * 
+     * @param path Canonical path of the file
+     * @param modified Time the file was last modified
+     * @return Cached image, or null if it isn't cached or the file has changed since
+     */
+    ImageAsset getAsset(String path, long modified)
+    {
+        Entry entry = find(path, modified);
+        if(entry == null)
+        {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.asset;
+    }
+    
+    /**
+     * Look up the texture uploaded from a file
+     * 
+     * @param path Canonical path of the file
+     * @param modified Time the file was last modified
+     * @return Cached texture, or null if none has been uploaded or the file has changed since
+     */
+    Texture getTexture(String path, long modified)
+    {
+        Entry entry = find(path, modified);
+        if(entry == null || entry.texture == null)
+        {
+            textureMisses++;
+            return null;
+        }
+        textureHits++;
+        return entry.texture;
+    }
+    
+    /**
+     * Add a decoded image to the cache
+     * 
+     * @param path Canonical path of the file
+     * @param modified Time the file was last modified
+     * @param asset Decoded image
+     */
+    void putAsset(String path, long modified, ImageAsset asset)
+    {
+        Entry entry = find(path, modified);
+        if(entry != null && entry.asset == asset)
+        {
+            return;
+        }
+        if(entry != null)
+        {
+            remove(path);
+        }
+        entry = new Entry(modified, asset);
+        entries.put(path, entry);
+        bytes += entry.bytes;
+        evict(entry);
+    }
+    
+    /**
+     * Add a texture to the cache alongside the image it was uploaded from
+     * 
+     * @param path Canonical path of the file
+     * @param modified Time the file was last modified
+     * @param asset Decoded image the texture was uploaded from
+     * @param texture Uploaded texture
+     * @param textureBytes Bytes the texture takes up once uploaded
+     */
+    void putTexture(String path, long modified, ImageAsset asset, Texture texture, long textureBytes)
+    {
+        putAsset(path, modified, asset);
+        Entry entry = entries.get(path);
+        //taken before the old one is released, in case they are the same texture
+        texture.acquire();
+        if(entry.texture != null)
+        {
+            entry.texture.release();
+            bytes -= entry.textureBytes;
+        }
+        entry.texture = texture;
+        entry.textureBytes = textureBytes;
+        bytes += textureBytes;
+        evict(entry);
+    }
+    
+    /**
+     * Drop every entry, releasing the cache's reference to their textures
+     */
+    void clear()
+    {
+        for(Entry entry : entries.values())
+        {
+            entry.release();
+        }
+        entries.clear();
+        bytes = 0;
+    }
+    
+    /**
+     * Find the entry of a file, dropping it if the file has changed since it was cached
+     * 
+     * @param path Canonical path of the file
+     * @param modified Time the file was last modified
+     * @return Entry of the file, or null if there is none that is up to date
+     */
+    private Entry find(String path, long modified)
+    {
+        Entry entry = entries.get(path);
+        if(entry != null && entry.modified != modified)
+        {
+            remove(path);
+            return null;
+        }
+        return entry;
+    }
+    
+    /**
+     * Drop the entry of a file
+     * 
+     * @param path Canonical path of the file
+     */
+    private void remove(String path)
+    {
+        Entry entry = entries.remove(path);
+        bytes -= entry.bytes + entry.textureBytes;
+        entry.release();
+    }
+    
+    /**
+     * Drop the least recently used entries until the cache is back within budget
+     * 
+     * @param keep Entry that was just added, which is never dropped even if it is over budget on its own
+     */
+    private void evict(Entry keep)
+    {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while(bytes > budget && eldest.hasNext())
+        {
+            Entry entry = eldest.next();
+            if(entry == keep)
+            {
+                continue;
+            }
+            eldest.remove();
+            bytes -= entry.bytes + entry.textureBytes;
+            entry.release();
+        }
+    }
+    
+    /**
+     * Get the number of image lookups that were found in the cache
+     * 
+     * @return Number of image hits
+     */
+    long getHits()
+    {
+        return hits;
+    }
+    
+    /**
+     * Get the number of image lookups that had to be decoded from file
+     * 
+     * @return Number of image misses
+     */
+    long getMisses()
+    {
+        return misses;
+    }
+    
+    /**
+     * Get the number of texture lookups that were found in the cache
+     * 
+     * @return Number of texture hits
+     */
+    long getTextureHits()
+    {
+        return textureHits;
+    }
+    
+    /**
+     * Get the number of texture lookups that had to be uploaded
+     * 
+     * @return Number of texture misses
+     */
+    long getTextureMisses()
+    {
+        return textureMisses;
+    }
+    
+    /**
+     * Get the bytes currently taken up by the cache
+     * 
+     * @return Bytes of image and texture data cached
+     */
+    long getBytes()
+    {
+        return bytes;
+    }
+    
+    /**
+     * Cached image of a single file and the texture uploaded from it, if any
+     */
+    private static class Entry
+    {
+        private final long modified;
+        private final ImageAsset asset;
+        private final long bytes;
+        private Texture texture;
+        private long textureBytes = 0;
+        
+        /**
+         * Declare an entry for a decoded image
+         * 
+         * @param modified Time the file was last modified
+         * @param asset Decoded image
+         */
+        Entry(long modified, ImageAsset asset)
+        {
+            this.modified = modified;
+            this.asset = asset;
+            bytes = (long)asset.getWidth() * asset.getHeight() * 4;
+        }
+        
+        /**
+         * Release the cache's reference to the entry's texture, if it has one
+         */
+        void release()
+        {
+            if(texture != null)
+            {
+                texture.release();
+                texture = null;
+            }
+        }
+    }
+}
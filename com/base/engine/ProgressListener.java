@@ -0,0 +1,17 @@
+package com.base.engine;
+
+/**
+ * Receives progress updates from the parsing and triangulation pipeline
+ * Updates may arrive on any thread, so a listener that touches Swing must hand them over to the event dispatch thread itself
+ * 
+ * @author Jordan
+ */
+public interface ProgressListener
+{
+    /**
+     * Report how far along the pipeline has gotten
+     * 
+     * @param message Text describing the current step
+     */
+    public void progress(String message);
+}
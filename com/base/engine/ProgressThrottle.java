@@ -0,0 +1,94 @@
+package com.base.engine;
+
+/**
+ * Coalesces progress updates on their way to a listener, passing on at most one update per interval
+ * Updates arriving in between are held back and only the latest is passed on, either once the interval is up or when flushed.
+ * Hot loops should check isDue() before building their message, so that nothing is built when it would be thrown away.
+ * Without a listener isDue() is always false and every update is dropped straight away.
+ * 
+ * A throttle can be shared between the threads of a single job, such as those processing the contours of one image.
+ * isDue() takes no lock so hot loops on every thread can keep checking it
+ * 
+ * @author Jordan
+ */
+public final class ProgressThrottle
+{
+    //default time between updates, well above how often anybody could read them
+    public static final long DEFAULT_INTERVAL = 50;
+    
+    private final ProgressListener listener;
+    private final long interval;
+    private volatile long last;
+    private String pending;
+    
+    /**
+     * Throttle a listener to the default interval
+     * 
+     * @param listener Listener to pass updates on to, or null to drop every update
+     */
+    public ProgressThrottle(ProgressListener listener)
+    {
+        this(listener, DEFAULT_INTERVAL);
+    }
+    
+    /**
+     * Throttle a listener to a given interval
+     * 
+     * @param listener Listener to pass updates on to, or null to drop every update
+     * @param interval Minimum time between updates in milliseconds
+     */
+    public ProgressThrottle(ProgressListener listener, long interval)
+    {
+        this.listener = listener;
+        this.interval = interval * 1000000L;
+        last = System.nanoTime() - this.interval;
+    }
+    
+    /**
+     * Determine if an update given now would be passed straight on to the listener
+     * 
+     * @return determines if the interval is up and there is a listener to tell
+     */
+    public boolean isDue()
+    {
+        return listener != null && System.nanoTime() - last >= interval;
+    }
+    
+    /**
+     * Give an update, passing it on if the interval is up or holding it back otherwise
+     * 
+     * @param message Text describing the current step
+     */
+    public synchronized void progress(String message)
+    {
+        if(listener == null)
+        {
+            return;
+        }
+        
+        long now = System.nanoTime();
+        if(now - last >= interval)
+        {
+            last = now;
+            pending = null;
+            listener.progress(message);
+        }
+        else
+        {
+            pending = message;
+        }
+    }
+    
+    /**
+     * Pass on the latest update held back, if there is one, so the listener ends on the last step reached
+     */
+    public synchronized void flush()
+    {
+        if(pending != null)
+        {
+            last = System.nanoTime();
+            listener.progress(pending);
+            pending = null;
+        }
+    }
+}
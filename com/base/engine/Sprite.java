@@ -43,6 +43,7 @@ public class Sprite
             try  
             {
                 texture = Simulation.getTextureLoader().getTexture(reference);
+                texture.acquire();
                 sizeX = texture.getWidth();                                
                 sizeY = texture.getHeight();                               
             }
@@ -58,6 +59,26 @@ public class Sprite
         }        
     }
     
+    /**
+     * Set up the sprite data related to this object, textured with an image that has already been decoded
+     * The sprite takes the size of the image
+     * 
+     * @param red Intensity of the red in the RGB colouring
+     * @param green Intensity of the green in the RGB colouring
+     * @param blue Intensity of the blue in the RGB colouring
+     * @param asset Decoded image the texture is uploaded from
+     */
+    public Sprite(float red, float green, float blue, ImageAsset asset)
+    {
+        this.red = red;                                                         
+        this.green = green;
+        this.blue = blue;
+        texture = Simulation.getTextureLoader().getTexture(asset);
+        texture.acquire();
+        sizeX = texture.getWidth();
+        sizeY = texture.getHeight();
+    }
+    
     /**
      * Set up the sprite data related to this object, guaranteed to be without a texture
      * 
@@ -118,6 +139,19 @@ public class Sprite
         }   
     }
     
+    /**
+     * Release the sprite's texture, which is deleted from OpenGL once nothing else is using it
+     * Must be called on the thread that owns the OpenGL context
+     */
+    public void release()
+    {
+        if(texture != null)
+        {
+            texture.release();
+            texture = null;
+        }
+    }
+    
     /**
      * Get width of the sprite
      * 
@@ -11,6 +11,7 @@ public class Texture
 {
     private int target, textureID, height, width;
     private float normalizedWidth, normalizedHeight;
+    private int references = 0;
     
     /**
      * Initialise a texture object with a target and an ID
@@ -32,6 +33,27 @@ public class Texture
         glBindTexture(target, textureID);
     }
     
+    /**
+     * Take a reference to the texture, keeping it in OpenGL until the reference is released
+     */
+    public void acquire()
+    {
+        references++;
+    }
+    
+    /**
+     * Drop a reference to the texture, deleting it from OpenGL once no references are left
+     * A texture that was never acquired is deleted straight away. Must be called on the thread that owns the OpenGL context
+     */
+    public void release()
+    {
+        references--;
+        if(references <= 0)
+        {
+            glDeleteTextures(textureID);
+        }
+    }
+    
     /**
      * Set the texture height
      * 
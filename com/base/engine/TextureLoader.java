@@ -1,24 +1,13 @@
 package com.base.engine;
 
-import java.awt.Color;
-import java.awt.Graphics;
-import java.awt.Image;
-import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
-import java.awt.image.ColorModel;
-import java.awt.image.ComponentColorModel;
-import java.awt.image.DataBuffer;
-import java.awt.image.DataBufferByte;
-import java.awt.image.Raster;
-import java.awt.image.WritableRaster;
+import java.awt.image.DataBufferInt;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.IntBuffer;
-import java.util.HashMap;
-import java.util.Hashtable;
-import javax.swing.ImageIcon;
+import javax.imageio.ImageIO;
 import org.lwjgl.BufferUtils;
 import static org.lwjgl.opengl.GL11.*;
 
@@ -29,19 +18,30 @@ import static org.lwjgl.opengl.GL11.*;
  */
 public class TextureLoader
 {
+    //bytes of decoded images and uploaded textures kept around by default
+    public static final long DEFAULT_CACHE_BUDGET = 256L * 1024 * 1024;
+    
     public static TextureLoader textureLoader;
-    private HashMap<String, Texture> table = new HashMap<String, Texture>();
-    private ColorModel glAlphaColorModel;
-    private ColorModel glColorModel;
+    private final ImageCache cache;
     private IntBuffer textureIDBuffer = BufferUtils.createIntBuffer(1);
     
     /**
-     * Initialise the textureloader class with transparency enabled
+     * Create a texture loader that caches up to the default budget of images and textures
      */
     public TextureLoader()
     {
-        glAlphaColorModel = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB), new int[] {8, 8, 8, 8}, true, false, ComponentColorModel.TRANSLUCENT, DataBuffer.TYPE_BYTE);
-        glColorModel = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB), new int[] {8, 8, 8, 0}, true, false, ComponentColorModel.OPAQUE, DataBuffer.TYPE_BYTE);
+        this(DEFAULT_CACHE_BUDGET);
+    }
+    
+    /**
+     * Create a texture loader with its own cache budget
+     * Once the budget is used up the least recently used images are dropped and their textures deleted
+     * 
+     * @param cacheBudget Most bytes of decoded images and uploaded textures to keep at once
+     */
+    public TextureLoader(long cacheBudget)
+    {
+        cache = new ImageCache(cacheBudget);
     }
     
     /**
@@ -64,16 +64,46 @@ public class TextureLoader
      */
     public Texture getTexture(String resourceName) throws IOException
     {
-        Texture texture = table.get(resourceName);
+        File file = new File(resourceName);
+        Texture texture = cache.getTexture(cacheKey(file), file.lastModified());
         if(texture != null)
         {
             return texture;
         }
-        
+        return uploadTexture(loadAsset(resourceName), file);
+    }
+    
+    /**
+     * Get a texture from an image that has already been decoded, uploading it if it hasn't been already
+     * 
+     * @param asset Decoded image we wish to fetch the texture of
+     * @return Texture we are returning
+     */
+    public Texture getTexture(ImageAsset asset)
+    {
+        File file = new File(asset.getReference());
+        Texture texture = cache.getTexture(cacheKey(file), file.lastModified());
+        if(texture != null)
+        {
+            return texture;
+        }
+        return uploadTexture(asset, file);
+    }
+    
+    /**
+     * Upload the default texture of an image and cache it alongside the image
+     * 
+     * @param asset Decoded image we wish to upload
+     * @param file File the image was loaded from
+     * @return Texture we are returning
+     */
+    private Texture uploadTexture(ImageAsset asset, File file)
+    {
         //GL_NEAREST provides a crisp to-the-pixel look (that might be better done with mipmapping)
         //GL_LINEAR provides a slightly blurred take, meaning things don't look blocky when zoomed in
-        texture = getTexture(resourceName, GL_TEXTURE_2D, GL_RGBA, GL_NEAREST, GL_NEAREST);
-        table.put(resourceName, texture);
+        Texture texture = getTexture(asset, GL_TEXTURE_2D, GL_RGBA, GL_NEAREST, GL_NEAREST);
+        long textureBytes = (long)get2Fold(asset.getWidth()) * get2Fold(asset.getHeight()) * 4;
+        cache.putTexture(cacheKey(file), file.lastModified(), asset, texture, textureBytes);
         return texture;
     }
     
@@ -90,28 +120,34 @@ public class TextureLoader
     */
     public Texture getTexture(String resourceName, int target, int dstPixelFormat, int minFilter, int magFilter) throws IOException
     {
-        int srcPixelFormat;
+        return getTexture(loadAsset(resourceName), target, dstPixelFormat, minFilter, magFilter);
+    }
+    
+   /**
+    * Upload a texture from an image that has already been decoded, a more thorough texture setup
+    * 
+    * @param asset Decoded image we wish to upload
+    * @param target ID of the target object we will bind the texture to
+    * @param dstPixelFormat format of the pixels in the texture (OpenGL variable)
+    * @param minFilter render minimum filter applied to the texture
+    * @param magFilter render magnitude filter applied to the texture
+    * @return Texture we are returning
+    */
+    public Texture getTexture(ImageAsset asset, int target, int dstPixelFormat, int minFilter, int magFilter)
+    {
         int textureID = createTextureID();
         Texture texture = new Texture(target, textureID);
         
         glBindTexture(target, textureID);
         
-        BufferedImage bufferedImage = loadImage(resourceName);
-        texture.setWidth(bufferedImage.getWidth());
-        texture.setHeight(bufferedImage.getHeight());
-        texture.setNormalizedWidth(powerOfTwo(bufferedImage.getWidth()));
-        texture.setNormalizedHeight(powerOfTwo(bufferedImage.getHeight()));
+        texture.setWidth(asset.getWidth());
+        texture.setHeight(asset.getHeight());
+        texture.setNormalizedWidth(powerOfTwo(asset.getWidth()));
+        texture.setNormalizedHeight(powerOfTwo(asset.getHeight()));
         
-        if(bufferedImage.getColorModel().hasAlpha())
-        {
-            srcPixelFormat = GL_RGBA;
-        }
-        else
-        {
-            srcPixelFormat = GL_RGB;
-        }
-        
-        ByteBuffer textureBuffer = convertImageData(bufferedImage, texture);
+        int textureWidth = get2Fold(asset.getWidth());
+        int textureHeight = get2Fold(asset.getHeight());
+        ByteBuffer textureBuffer = convertImageData(asset, textureWidth, textureHeight);
 
         if(target == GL_TEXTURE_2D)
         {
@@ -119,7 +155,8 @@ public class TextureLoader
             glTexParameteri(target, GL_TEXTURE_MAG_FILTER, magFilter);
         }
         
-        glTexImage2D(target, 0, dstPixelFormat, get2Fold(bufferedImage.getWidth()), get2Fold(bufferedImage.getHeight()), 0, srcPixelFormat, GL_UNSIGNED_BYTE, textureBuffer);
+        //assets always carry alpha, so the source is always RGBA
+        glTexImage2D(target, 0, dstPixelFormat, textureWidth, textureHeight, 0, GL_RGBA, GL_UNSIGNED_BYTE, textureBuffer);
         return texture;
     }
 
@@ -161,59 +198,77 @@ public class TextureLoader
     }
     
     /**
-     * Convert the image resource into a bytebuffer for rasterization
+     * Convert the image's raw pixels into a bytebuffer for rasterization
+     * Pixels are reordered into RGBA straight from the raster, with the space beyond the image left transparent
      * 
-     * @param bufferedImage Image we wish to convert
-     * @param texture Texture the image is related to
+     * @param asset Image we wish to convert
+     * @param textureWidth Width of the power of two texture the image sits in
+     * @param textureHeight Height of the power of two texture the image sits in
      * @return Bytebuffer of the source image
      */
-    private ByteBuffer convertImageData(BufferedImage bufferedImage, Texture texture)
+    private ByteBuffer convertImageData(ImageAsset asset, int textureWidth, int textureHeight)
     {
-        ByteBuffer imageBuffer;
-        WritableRaster raster;
-        BufferedImage textureImage;
-        
-        int textureWidth = 2;
-        int textureHeight = 2;
-        
-        while(textureWidth < bufferedImage.getWidth())
-        {
-            textureWidth *= 2;
-        }
-        while(textureHeight < bufferedImage.getHeight())
-        {
-            textureHeight *= 2;
-        }
+        int width = asset.getWidth();
+        int height = asset.getHeight();
         
-        if(bufferedImage.getColorModel().hasAlpha())
+        //direct buffers start out zeroed, so the padding is already transparent black
+        ByteBuffer imageBuffer = BufferUtils.createByteBuffer(textureWidth * textureHeight * 4);
+        //written big-endian, an RGBA integer lands in memory as the bytes R, G, B, A
+        IntBuffer rgba = imageBuffer.duplicate().order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+        if(asset.isPacked())
         {
-            raster = Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE, textureWidth, textureHeight, 4, null);
-            textureImage = new BufferedImage(glAlphaColorModel, raster, false, new Hashtable());
+            //each packed ARGB pixel is rotated into RGBA
+            int[] pixels = asset.getPixels();
+            for(int y = 0; y < height; y++)
+            {
+                rgba.position(y * textureWidth);
+                int row = y * width;
+                for(int x = 0; x < width; x++)
+                {
+                    int argb = pixels[row + x];
+                    rgba.put((argb << 8) | (argb >>> 24));
+                }
+            }
         }
         else
         {
-            raster = Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE, textureWidth, textureHeight, 3, null);
-            textureImage = new BufferedImage(glColorModel, raster, false, new Hashtable());
+            //the bytes A, B, G, R read little-endian are an RGBA integer, so each row is a straight bulk copy
+            IntBuffer abgr = ByteBuffer.wrap(asset.getSamples()).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            for(int y = 0; y < height; y++)
+            {
+                rgba.position(y * textureWidth);
+                abgr.limit((y + 1) * width).position(y * width);
+                rgba.put(abgr);
+            }
         }
-        
-        Graphics g = textureImage.getGraphics();
-        g.setColor(new Color(0f, 0f, 0f, 0f));
-        g.fillRect(0, 0, textureWidth, textureHeight);
-        g.drawImage(bufferedImage, 0, 0, null);
-        
-        byte[] data = ((DataBufferByte) textureImage.getRaster().getDataBuffer()).getData();
-        
-        imageBuffer = ByteBuffer.allocateDirect(data.length);
-        imageBuffer.order(ByteOrder.nativeOrder());
-        imageBuffer.put(data, 0, data.length);
-        imageBuffer.flip();
-        
         return imageBuffer;
     }
     
+    /**
+     * Load the image from file, ready to be shared by the parser, the object using it and its texture
+     * 
+     * @param reference Filepath of the image we are loading
+     * @return Decoded image
+     * @throws IOException 
+     */
+    public ImageAsset loadAsset(String reference) throws IOException
+    {
+        File file = new File(reference);
+        String key = cacheKey(file);
+        long modified = file.lastModified();
+        ImageAsset asset = cache.getAsset(key, modified);
+        if(asset == null)
+        {
+            asset = new ImageAsset(reference, decodeImage(file));
+            cache.putAsset(key, modified, asset);
+        }
+        return asset;
+    }
+    
     /**
      * Load the image from file
      * Publicly accessible for situations that need to load the image directly and not the texture
+     * The image is shared with the cache, so it must not be drawn on
      * 
      * @param reference Filepath of the image we are loading
      * @return Image we are loading, if found
@@ -221,19 +276,115 @@ public class TextureLoader
      */
     public BufferedImage loadImage(String reference) throws IOException
     {
-        File file = new File(reference);
-
-        if(file == null)
+        return loadAsset(reference).getImage();
+    }
+    
+    /**
+     * Decode an image from file through ImageIO, without starting up the AWT toolkit
+     * Images decoded as packed ARGB integers or interleaved ABGR bytes are kept as they are, anything else is copied into packed ARGB integers
+     * 
+     * @param file File of the image we are decoding
+     * @return Image of type TYPE_INT_ARGB or TYPE_4BYTE_ABGR
+     * @throws IOException 
+     */
+    private BufferedImage decodeImage(File file) throws IOException
+    {
+        if(!file.isFile())
         {
-            throw new IOException("Cannot find: " + reference);
+            throw new IOException("Cannot find: " + file.getPath());
         }
         
-        Image image = new ImageIcon(file.getAbsolutePath()).getImage();
-        BufferedImage bufferedImage = new BufferedImage(image.getWidth(null), image.getHeight(null), BufferedImage.TYPE_INT_ARGB);
-        Graphics g = bufferedImage.getGraphics();
-        g.drawImage(image, 0, 0, null);
-        g.dispose();
+        BufferedImage image = ImageIO.read(file);
+        if(image == null)
+        {
+            throw new IOException("Cannot decode: " + file.getPath());
+        }
+        if(ImageAsset.canWrap(image))
+        {
+            return image;
+        }
         
-        return bufferedImage;
+        //converted straight into the new raster's array rather than painted, so no graphics pipeline is needed
+        int width = image.getWidth();
+        int height = image.getHeight();
+        BufferedImage converted = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        image.getRGB(0, 0, width, height, ((DataBufferInt)converted.getRaster().getDataBuffer()).getData(), 0, width);
+        return converted;
+    }
+    
+    /**
+     * Get the key an image file is cached under, so the same file reached by different paths shares one entry
+     * 
+     * @param file File of the image
+     * @return Canonical path of the file, or its absolute path if it can't be resolved
+     */
+    private static String cacheKey(File file)
+    {
+        try
+        {
+            return file.getCanonicalPath();
+        }
+        catch(IOException e)
+        {
+            return file.getAbsolutePath();
+        }
+    }
+    
+    /**
+     * Drop every cached image and release every cached texture, deleting those no sprite is still using
+     */
+    public void clearCache()
+    {
+        cache.clear();
+    }
+    
+    /**
+     * Get the number of images that were found in the cache rather than decoded from file
+     * 
+     * @return Number of image cache hits
+     */
+    public long getImageHits()
+    {
+        return cache.getHits();
+    }
+    
+    /**
+     * Get the number of images that had to be decoded from file
+     * 
+     * @return Number of image cache misses
+     */
+    public long getImageMisses()
+    {
+        return cache.getMisses();
+    }
+    
+    /**
+     * Get the number of textures that were found in the cache rather than uploaded
+     * 
+     * @return Number of texture cache hits
+     */
+    public long getTextureHits()
+    {
+        return cache.getTextureHits();
+    }
+    
+    /**
+     * Get the number of textures that had to be uploaded
+     * 
+     * @return Number of texture cache misses
+     */
+    public long getTextureMisses()
+    {
+        return cache.getTextureMisses();
+    }
+    
+    /**
+     * Get the bytes of decoded images and uploaded textures currently cached
+     * 
+     * @return Bytes held by the cache
+     */
+    public long getCachedBytes()
+    {
+        return cache.getBytes();
     }
 }
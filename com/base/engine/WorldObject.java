@@ -134,6 +134,17 @@ public abstract class WorldObject
         return body;
     }
     
+    /**
+     * Release the texture of the object's sprite once the object is removed from the simulation
+     */
+    public void releaseSprite()
+    {
+        if(spr != null)
+        {
+            spr.release();
+        }
+    }
+    
     /**
      * Remove the box2d body definition from the object
      * Not the same as removing from the simulation entirely
@@ -0,0 +1,22 @@
+package com.base.engine.imageparsing;
+
+/**
+ * Compares the alpha of a run of packed integer pixels against a threshold, packing the results into the bits of a long
+ *
+ * @author Jordan
+ */
+interface AlphaPacker
+{
+    /**
+     * Pack up to 64 pixels into a word of the mask
+     *
+     * @param data Backing array of the image raster
+     * @param index Index of the first pixel to pack
+     * @param count Number of pixels to pack, no more than 64
+     * @param alphaMask Bit mask of the alpha channel within a pixel
+     * @param shift Number of bits the alpha channel sits above the lowest bit of a pixel
+     * @param threshold Alpha a pixel must be above to be set
+     * @return Word with bit i set if the pixel at index + i is above the threshold
+     */
+    public long pack(int[] data, int index, int count, int alphaMask, int shift, int threshold);
+}
@@ -0,0 +1,161 @@
+package com.base.engine.imageparsing;
+
+/**
+ * Binary min-heap of vertex indices ordered by the area each vertex adds
+ * The heap position of every vertex is tracked so that a vertex whose area changes can be moved straight to its new place
+ *
+ * @author Jordan
+ */
+final class AreaHeap
+{
+    private final double[] areas;
+    private final int[] heap;
+    //position of each vertex in the heap, or -1 once it has been taken out
+    private final int[] positions;
+    private int size;
+
+    /**
+     * Build a heap holding every vertex
+     *
+     * @param areas Area each vertex adds, kept up to date by the caller
+     */
+    AreaHeap(double[] areas)
+    {
+        this.areas = areas;
+        size = areas.length;
+        heap = new int[size];
+        positions = new int[size];
+        for(int i = 0; i < size; i++)
+        {
+            heap[i] = i;
+            positions[i] = i;
+        }
+        for(int i = (size / 2) - 1; i >= 0; i--)
+        {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Get the vertex adding the least area without taking it out
+     *
+     * @return Index of the vertex
+     */
+    int peek()
+    {
+        return heap[0];
+    }
+
+    /**
+     * Take out the vertex adding the least area
+     *
+     * @return Index of the vertex
+     */
+    int poll()
+    {
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if(size > 0)
+        {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Move a vertex to its place in the heap after its area has changed
+     *
+     * @param vertex Index of the vertex
+     */
+    void update(int vertex)
+    {
+        int position = positions[vertex];
+        if(position != -1)
+        {
+            siftDown(siftUp(position));
+        }
+    }
+
+    /**
+     * Determine if one heap entry should sit above another
+     * Ties go to the lower index so the result doesn't depend on the order of the heap
+     *
+     * @param a Position of the first entry
+     * @param b Position of the second entry
+     * @return determines if the first entry goes above the second
+     */
+    private boolean less(int a, int b)
+    {
+        double areaA = areas[heap[a]];
+        double areaB = areas[heap[b]];
+        return areaA < areaB || (areaA == areaB && heap[a] < heap[b]);
+    }
+
+    /**
+     * Move an entry up the heap until its parent is no greater
+     *
+     * @param position Position of the entry
+     * @return Position the entry ended up at
+     */
+    private int siftUp(int position)
+    {
+        while(position > 0)
+        {
+            int parent = (position - 1) / 2;
+            if(!less(position, parent))
+            {
+                break;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+        return position;
+    }
+
+    /**
+     * Move an entry down the heap until neither child is smaller
+     *
+     * @param position Position of the entry
+     */
+    private void siftDown(int position)
+    {
+        while(true)
+        {
+            int smallest = position;
+            int left = (position * 2) + 1;
+            int right = left + 1;
+            if(left < size && less(left, smallest))
+            {
+                smallest = left;
+            }
+            if(right < size && less(right, smallest))
+            {
+                smallest = right;
+            }
+            if(smallest == position)
+            {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    /**
+     * Swap two entries of the heap
+     *
+     * @param a Position of the first entry
+     * @param b Position of the second entry
+     */
+    private void swap(int a, int b)
+    {
+        int vertex = heap[a];
+        heap[a] = heap[b];
+        heap[b] = vertex;
+        positions[heap[a]] = a;
+        positions[heap[b]] = b;
+    }
+}
@@ -0,0 +1,191 @@
+package com.base.engine.imageparsing;
+
+import java.util.ArrayList;
+
+/**
+ * Simplifiers that come with the parser, registered ahead of any found on the classpath
+ *
+ * @author Jordan
+ */
+final class BuiltInSimplifiers
+{
+    static final ContourSimplifier RAMER = new BuiltIn("Ramer-Douglas-Peucker", "Points simplified with Ramer-Peucker-Douglas Algorithm", true, false, false, false)
+    {
+        @Override
+        public Contour simplify(Contour points, SimplifierConfig config, ParseImage image)
+        {
+            return douglas(points, config, false);
+        }
+    };
+
+    static final ContourSimplifier RAMER_HULL = new BuiltIn("Ramer-Douglas-Peucker Hull", "Points simplified with Ramer-Peucker-Douglas Algorithm over a tree of convex hulls", true, false, false, false)
+    {
+        @Override
+        public Contour simplify(Contour points, SimplifierConfig config, ParseImage image)
+        {
+            return douglas(points, config, true);
+        }
+    };
+
+    static final ContourSimplifier CIRCLE = new BuiltIn("Circle Algorithm", "Points simplified with personal circle-based algorithm", true, false, false, true)
+    {
+        @Override
+        public Contour simplify(Contour points, SimplifierConfig config, ParseImage image)
+        {
+            return image.simplifyCircle(points, config);
+        }
+    };
+
+    static final ContourSimplifier FLEXIBLE = new BuiltIn("Flexible Algorithm", "Points simplified with personal general-purpose algorithm", false, false, false, true)
+    {
+        @Override
+        public Contour simplify(Contour points, SimplifierConfig config, ParseImage image)
+        {
+            return image.simplifyBoth5(points);
+        }
+    };
+
+    static final ContourSimplifier ORIG = new BuiltIn("Original Algorithm", "Points simplified with original personal algorithm", true, true, false, false)
+    {
+        @Override
+        public Contour simplify(Contour points, SimplifierConfig config, ParseImage image)
+        {
+            return image.simplifyold(points, config);
+        }
+    };
+
+    static final ContourSimplifier VISVALINGAM = new BuiltIn("Visvalingam-Whyatt", "Points simplified with Visvalingam-Whyatt Algorithm", true, false, true, false)
+    {
+        @Override
+        public Contour simplify(Contour points, SimplifierConfig config, ParseImage image)
+        {
+            return new VisvalingamSimplifier(config.getLimit(), config.getMaxVertices()).simplify(points);
+        }
+    };
+
+    static final ContourSimplifier TOPOLOGY = new Topology();
+
+    static final ContourSimplifier NONE = new BuiltIn("None", "Points not simplified", false, false, false, false)
+    {
+        @Override
+        public Contour simplify(Contour points, SimplifierConfig config, ParseImage image)
+        {
+            return points;
+        }
+    };
+
+    private BuiltInSimplifiers()
+    {
+    }
+
+    /**
+     * Use the Ramer-Douglas-Peucker algorithm to simplify a loop
+     *
+     * @param points Original list of points that we wish to simplify
+     * @param config Parameters of the simplification
+     * @param hullSearch Determines if the furthest point is found through a tree of convex hulls
+     * @return Simplified list of points
+     */
+    static Contour douglas(Contour points, SimplifierConfig config, boolean hullSearch)
+    {
+        if(config.getLimit() <= 0 || points.size() < 3)
+        {
+            return points;
+        }
+        return new DouglasPeuckerSimplifier(config.getLimit(), hullSearch).simplify(points);
+    }
+
+    /**
+     * Visvalingam-Whyatt simplification of a shape's outline and holes together, never letting a loop cross itself or another
+     */
+    private static class Topology extends BuiltIn implements ShapeSimplifier
+    {
+        Topology()
+        {
+            super("Topology-preserving", "Points simplified without crossing any outline or hole", true, false, false, false);
+        }
+
+        @Override
+        public Contour simplify(Contour points, SimplifierConfig config, ParseImage image)
+        {
+            ArrayList<Contour> loops = new ArrayList<Contour>(1);
+            loops.add(points);
+            return simplifyShape(loops, config, image).get(0);
+        }
+
+        @Override
+        public ArrayList<Contour> simplifyShape(ArrayList<Contour> loops, SimplifierConfig config, ParseImage image)
+        {
+            return new ArrayList<Contour>(new TopologyPreservingSimplifier(config.getLimit()).simplify(loops));
+        }
+    }
+
+    /**
+     * Description shared by every built-in simplifier, leaving each only its algorithm to fill in
+     */
+    private abstract static class BuiltIn implements ContourSimplifier
+    {
+        private final String name;
+        private final String status;
+        private final boolean usesLimit;
+        private final boolean usesAverage;
+        private final boolean usesMaxVertices;
+        private final boolean readsImage;
+
+        /**
+         * Describe a built-in simplifier
+         *
+         * @param name Name the simplifier is chosen by
+         * @param status Message reported once a set of points has been simplified
+         * @param usesLimit Determines if the tolerance is used
+         * @param usesAverage Determines if the number of points to average is used
+         * @param usesMaxVertices Determines if the vertex budget is used
+         * @param readsImage Determines if the image around each point is looked at
+         */
+        BuiltIn(String name, String status, boolean usesLimit, boolean usesAverage, boolean usesMaxVertices, boolean readsImage)
+        {
+            this.name = name;
+            this.status = status;
+            this.usesLimit = usesLimit;
+            this.usesAverage = usesAverage;
+            this.usesMaxVertices = usesMaxVertices;
+            this.readsImage = readsImage;
+        }
+
+        @Override
+        public String getName()
+        {
+            return name;
+        }
+
+        @Override
+        public String getStatus()
+        {
+            return status;
+        }
+
+        @Override
+        public boolean usesLimit()
+        {
+            return usesLimit;
+        }
+
+        @Override
+        public boolean usesAverage()
+        {
+            return usesAverage;
+        }
+
+        @Override
+        public boolean usesMaxVertices()
+        {
+            return usesMaxVertices;
+        }
+
+        @Override
+        public boolean readsImage()
+        {
+            return readsImage;
+        }
+    }
+}
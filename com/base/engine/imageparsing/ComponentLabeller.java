@@ -0,0 +1,338 @@
+package com.base.engine.imageparsing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds every shape and every hole in an image in two passes over its mask
+ * The first pass gives each pixel a provisional label, joining labels of neighbouring pixels with a union-find as it goes.
+ * The second pass settles every label into a region and records its bounds and seed pixel.
+ * Shape pixels connect to all 8 of their neighbours, background pixels only to the 4 sharing a side,
+ * matching how the tracers treat pixels that only touch diagonally
+ *
+ * Large images can have their first pass split into horizontal strips, each labelled in its own fork/join task,
+ * with the labels of neighbouring strips joined along the seams between them afterwards
+ *
+ * @author Jordan
+ */
+public class ComponentLabeller
+{
+    //strips any thinner than this aren't worth the cost of joining their seams
+    private static final int MIN_STRIP_HEIGHT = 64;
+
+    private final PixelMask mask;
+    private final int width;
+    private final int height;
+    private final int[] labels;
+    private LabelSets sets;
+    private ArrayList<PixelRegion> regions = new ArrayList<PixelRegion>();
+
+    /**
+     * Label every pixel of a mask on the calling thread
+     *
+     * @param mask Mask of every pixel in the image that has an alpha value
+     */
+    public ComponentLabeller(PixelMask mask)
+    {
+        this(mask, null);
+    }
+
+    /**
+     * Label every pixel of a mask, splitting the work into strips across a fork/join pool
+     *
+     * @param mask Mask of every pixel in the image that has an alpha value
+     * @param pool Pool to label the strips on, or null to label the whole image on the calling thread
+     */
+    public ComponentLabeller(PixelMask mask, ForkJoinPool pool)
+    {
+        this.mask = mask;
+        width = mask.getWidth();
+        height = mask.getHeight();
+        labels = new int[width * height];
+
+        int stripCount = pool == null ? 1 : Math.min(pool.getParallelism() * 4, height / MIN_STRIP_HEIGHT);
+        if(stripCount <= 1)
+        {
+            StripLabeller strip = new StripLabeller(0, height);
+            strip.compute();
+            sets = strip.stripSets;
+        }
+        else
+        {
+            labelStrips(pool, stripCount);
+        }
+        buildRegions();
+    }
+
+    /**
+     * First pass split across strips, which are then joined together into a single set of labels
+     *
+     * @param pool Pool to label the strips on
+     * @param stripCount Number of strips to split the image into
+     */
+    private void labelStrips(ForkJoinPool pool, int stripCount)
+    {
+        final StripLabeller[] strips = new StripLabeller[stripCount];
+        for(int i = 0; i < stripCount; i++)
+        {
+            strips[i] = new StripLabeller((int)((long)height * i / stripCount), (int)((long)height * (i + 1) / stripCount));
+        }
+        pool.invoke(new RecursiveAction()
+        {
+            @Override
+            protected void compute()
+            {
+                invokeAll(strips);
+            }
+        });
+
+        //gather every strip's labels into one set, the first strip's labels stay as they are
+        sets = strips[0].stripSets;
+        for(int i = 1; i < stripCount; i++)
+        {
+            strips[i].offset = sets.append(strips[i].stripSets);
+        }
+
+        //the strips were labelled without seeing each other, so join the labels across each seam
+        for(int i = 1; i < stripCount; i++)
+        {
+            joinSeam(strips[i - 1], strips[i]);
+        }
+        sets.flatten();
+
+        //move every pixel over to the root of its joined label
+        final SeamResolver[] resolvers = new SeamResolver[stripCount];
+        for(int i = 0; i < stripCount; i++)
+        {
+            resolvers[i] = new SeamResolver(strips[i]);
+        }
+        pool.invoke(new RecursiveAction()
+        {
+            @Override
+            protected void compute()
+            {
+                invokeAll(resolvers);
+            }
+        });
+    }
+
+    /**
+     * Join the labels of the top row of one strip with the bottom row of the next
+     *
+     * @param below Strip below the seam
+     * @param above Strip above the seam
+     */
+    private void joinSeam(StripLabeller below, StripLabeller above)
+    {
+        int y = above.y0;
+        int row = y * width;
+        for(int x = 0; x < width; x++)
+        {
+            int label = above.global(labels[row + x]);
+            if(mask.get(x, y))
+            {
+                for(int i = -1; i < 2; i++)
+                {
+                    if(mask.get(x + i, y - 1))
+                    {
+                        label = sets.join(label, below.global(labels[row - width + x + i]));
+                    }
+                }
+            }
+            else if(!mask.get(x, y - 1))
+            {
+                sets.join(label, below.global(labels[row - width + x]));
+            }
+        }
+    }
+
+    /**
+     * Second pass, replacing every provisional label with the index of the region it belongs to
+     */
+    private void buildRegions()
+    {
+        int[] regionOf = new int[sets.size()];
+        Arrays.fill(regionOf, PixelRegion.OUTSIDE);
+
+        for(int y = 0; y < height; y++)
+        {
+            int row = y * width;
+            for(int x = 0; x < width; x++)
+            {
+                int root = sets.find(labels[row + x]);
+                if(root == LabelSets.EXTERIOR)
+                {
+                    labels[row + x] = PixelRegion.OUTSIDE;
+                    continue;
+                }
+
+                //the first pixel found of each region is its seed
+                if(regionOf[root] == PixelRegion.OUTSIDE)
+                {
+                    regionOf[root] = regions.size();
+                    regions.add(new PixelRegion(regions.size(), mask.get(x, y), x, y));
+                }
+                regions.get(regionOf[root]).add(x, y);
+                labels[row + x] = regionOf[root];
+            }
+        }
+
+        //a shape sits in whatever is to the left of its seed, and a hole is cut out of whatever is below its seed
+        for(PixelRegion r : regions)
+        {
+            if(r.isShape())
+            {
+                r.setParent(getLabel(r.getSeedX() - 1, r.getSeedY()));
+            }
+            else
+            {
+                r.setParent(getLabel(r.getSeedX(), r.getSeedY() - 1));
+            }
+        }
+    }
+
+    /**
+     * Get every region found in the image, in the order their seeds were found
+     *
+     * @return List of every shape and hole in the image
+     */
+    public ArrayList<PixelRegion> getRegions()
+    {
+        return regions;
+    }
+
+    /**
+     * Get the region a pixel belongs to
+     *
+     * @param x coordinate of the pixel along X
+     * @param y coordinate of the pixel along Y
+     * @return Index of the pixel's region, or OUTSIDE if it is background connected to the outside of the image
+     */
+    public int getLabel(int x, int y)
+    {
+        if(x < 0 || x >= width || y < 0 || y >= height)
+        {
+            return PixelRegion.OUTSIDE;
+        }
+        return labels[(y * width) + x];
+    }
+
+    /**
+     * First pass over a strip of rows, giving each pixel a provisional label from the neighbours already passed
+     * Rows below the strip are never looked at, so strips can be labelled at the same time
+     */
+    private class StripLabeller extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int y0;
+        private final int y1;
+        private final LabelSets stripSets = new LabelSets();
+        private int offset = 0;
+
+        /**
+         * Declare a strip of rows
+         *
+         * @param y0 First row of the strip
+         * @param y1 Row after the last row of the strip
+         */
+        StripLabeller(int y0, int y1)
+        {
+            this.y0 = y0;
+            this.y1 = y1;
+        }
+
+        /**
+         * Get the label of this strip's pixel once all the strips' labels are gathered together
+         *
+         * @param label Label of the pixel within this strip
+         * @return Label of the pixel amongst all strips
+         */
+        int global(int label)
+        {
+            return label == LabelSets.EXTERIOR ? label : label + offset;
+        }
+
+        @Override
+        protected void compute()
+        {
+            for(int y = y0; y < y1; y++)
+            {
+                int row = y * width;
+                for(int x = 0; x < width; x++)
+                {
+                    int label = -1;
+                    if(mask.get(x, y))
+                    {
+                        //west, south-west, south and south-east
+                        for(int i = -1; i < 2; i++)
+                        {
+                            //the mask is empty beyond the sides of the image, so x + i never lands on another row
+                            if(y > y0 && mask.get(x + i, y - 1))
+                            {
+                                label = stripSets.join(label, labels[row - width + x + i]);
+                            }
+                        }
+                        if(x > 0 && mask.get(x - 1, y))
+                        {
+                            label = stripSets.join(label, labels[row + x - 1]);
+                        }
+                    }
+                    else
+                    {
+                        //background on the edge of the image is connected to the outside
+                        if(x == 0 || y == 0 || x == width - 1 || y == height - 1)
+                        {
+                            label = LabelSets.EXTERIOR;
+                        }
+                        if(y > y0 && !mask.get(x, y - 1))
+                        {
+                            label = stripSets.join(label, labels[row - width + x]);
+                        }
+                        if(x > 0 && !mask.get(x - 1, y))
+                        {
+                            label = stripSets.join(label, labels[row + x - 1]);
+                        }
+                    }
+
+                    if(label == -1)
+                    {
+                        label = stripSets.newLabel();
+                    }
+                    labels[row + x] = label;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves every pixel of a strip from its label within the strip to the root of its label amongst all strips
+     */
+    private class SeamResolver extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final StripLabeller strip;
+
+        /**
+         * Declare the strip to resolve
+         *
+         * @param strip Strip that has been labelled and joined to its neighbours
+         */
+        SeamResolver(StripLabeller strip)
+        {
+            this.strip = strip;
+        }
+
+        @Override
+        protected void compute()
+        {
+            for(int i = strip.y0 * width; i < strip.y1 * width; i++)
+            {
+                labels[i] = sets.root(strip.global(labels[i]));
+            }
+        }
+    }
+}
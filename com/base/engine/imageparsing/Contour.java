@@ -0,0 +1,172 @@
+package com.base.engine.imageparsing;
+
+import java.util.ArrayList;
+import org.jbox2d.common.Vec2;
+
+/**
+ * Closed loop of vertices traced from an image, stored in primitive arrays rather than as one object per vertex
+ * Contours are passed through the whole parsing pipeline, from the tracers through the perfecters to the simplifiers,
+ * and are only turned into Box2d vectors once they leave it
+ *
+ * @author Jordan
+ */
+public abstract class Contour
+{
+    protected int size = 0;
+
+    /**
+     * Get the number of vertices in the contour
+     *
+     * @return Number of vertices
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Determine if the contour has no vertices
+     *
+     * @return determines if the contour is empty
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Get the X coordinate of a vertex
+     *
+     * @param i Index of the vertex
+     * @return coordinate of the vertex along X
+     */
+    public abstract float getX(int i);
+
+    /**
+     * Get the Y coordinate of a vertex
+     *
+     * @param i Index of the vertex
+     * @return coordinate of the vertex along Y
+     */
+    public abstract float getY(int i);
+
+    /**
+     * Get a key that two vertices share only if they are at exactly the same position
+     *
+     * @param i Index of the vertex
+     * @return Position of the vertex packed into a long
+     */
+    abstract long key(int i);
+
+    /**
+     * Create a copy of the contour with every repeated vertex removed, keeping the first time each position is reached
+     *
+     * @return Contour of the same kind with no two vertices at the same position
+     */
+    public abstract Contour withoutDuplicates();
+
+    /**
+     * Move every vertex of the contour by the same amount
+     *
+     * @param dx Distance to move along X
+     * @param dy Distance to move along Y
+     */
+    public abstract void translate(int dx, int dy);
+
+    /**
+     * Find the first time each position is reached in the contour
+     *
+     * @return Flag for each vertex, set if no earlier vertex is at the same position
+     */
+    protected boolean[] firstOccurrences()
+    {
+        boolean[] first = new boolean[size];
+
+        //open addressed set of the keys seen so far, kept under half full
+        int capacity = Integer.highestOneBit(Math.max(4, size) * 2) * 2;
+        long[] keys = new long[capacity];
+        boolean[] used = new boolean[capacity];
+        for(int i = 0; i < size; i++)
+        {
+            long key = key(i);
+            int slot = hash(key) & (capacity - 1);
+            while(used[slot] && keys[slot] != key)
+            {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            if(!used[slot])
+            {
+                used[slot] = true;
+                keys[slot] = key;
+                first[i] = true;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Spread the bits of a key across an int
+     *
+     * @param key Key we are hashing
+     * @return Hash of the key
+     */
+    private static int hash(long key)
+    {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int)(key ^ (key >>> 32));
+    }
+
+    /**
+     * Get the signed area of the contour
+     *
+     * @return Area of the contour, positive if it runs counter-clockwise
+     */
+    public double area()
+    {
+        double sum = 0;
+        for(int i = 0, j = size - 1; i < size; j = i++)
+        {
+            sum += ((double)getX(j) * getY(i)) - ((double)getX(i) * getY(j));
+        }
+        return sum / 2;
+    }
+
+    /**
+     * Determine if a point lies within the contour, by counting the edges crossed on the way out to its right
+     *
+     * @param px coordinate of the point along X
+     * @param py coordinate of the point along Y
+     * @return determines if the point is inside the contour
+     */
+    public boolean contains(float px, float py)
+    {
+        boolean inside = false;
+        for(int i = 0, j = size - 1; i < size; j = i++)
+        {
+            float ax = getX(i);
+            float ay = getY(i);
+            float bx = getX(j);
+            float by = getY(j);
+            if((ay > py) != (by > py) && px < ax + ((bx - ax) * (py - ay) / (by - ay)))
+            {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Convert the contour into Box2d vectors, for use once it has left the parser
+     *
+     * @return New list holding a vector for each vertex
+     */
+    public ArrayList<Vec2> toVec2List()
+    {
+        ArrayList<Vec2> vertices = new ArrayList<Vec2>(size);
+        for(int i = 0; i < size; i++)
+        {
+            vertices.add(new Vec2(getX(i), getY(i)));
+        }
+        return vertices;
+    }
+}
@@ -0,0 +1,64 @@
+package com.base.engine.imageparsing;
+
+/**
+ * Algorithm that reduces the number of points in a traced outline
+ * Simplifiers are found through SimplifierRegistry, which also picks up any implementation listed under
+ * META-INF/services/com.base.engine.imageparsing.ContourSimplifier on the classpath.
+ * Implementations keep no state between calls, so one instance can be shared between parsers on any number of threads
+ *
+ * @author Jordan
+ */
+public interface ContourSimplifier
+{
+    /**
+     * Get the name the simplifier is chosen by, which must be unique between simplifiers
+     *
+     * @return Name of the simplifier
+     */
+    String getName();
+
+    /**
+     * Get the message reported once a set of points has been simplified
+     *
+     * @return Status message
+     */
+    String getStatus();
+
+    /**
+     * Determine if the simplifier reads the tolerance from its parameters
+     *
+     * @return determines if the limit is used
+     */
+    boolean usesLimit();
+
+    /**
+     * Determine if the simplifier reads the number of points to average from its parameters
+     *
+     * @return determines if the average is used
+     */
+    boolean usesAverage();
+
+    /**
+     * Determine if the simplifier reads the vertex budget from its parameters
+     *
+     * @return determines if the vertex budget is used
+     */
+    boolean usesMaxVertices();
+
+    /**
+     * Determine if the simplifier looks at the image around each point, which a streamed parse doesn't keep
+     *
+     * @return determines if the parser's mask is needed
+     */
+    boolean readsImage();
+
+    /**
+     * Simplify a set of points
+     *
+     * @param points Original set of points that we wish to simplify
+     * @param config Parameters of the simplification
+     * @param image Parser the points were traced by
+     * @return Simplified set of points, which may be the original set if nothing was removed
+     */
+    Contour simplify(Contour points, SimplifierConfig config, ParseImage image);
+}
@@ -0,0 +1,29 @@
+package com.base.engine.imageparsing;
+
+/**
+ * Engine used by the parser to trace the outline of a shape in an image, starting from one of its boundary pixels
+ *
+ * @author Jordan
+ */
+public interface ContourTracer
+{
+    /**
+     * Trace the full loop of the outline that passes by a boundary pixel
+     * The pixel may be a shape pixel on the edge of the shape, or a background pixel on the edge of a hole, in which case the hole is traced
+     *
+     * @param mask Mask of every pixel in the image that has an alpha value
+     * @param x coordinate of the boundary pixel along X
+     * @param y coordinate of the boundary pixel along Y
+     * @param visited Mask that every boundary pixel passed along the way is set in
+     * @return Vertices of the traced loop, or null if the loop could not be completed
+     */
+    public Contour trace(PixelMask mask, int x, int y, PixelMask visited);
+
+    /**
+     * Determine if the traced vertices already lie on the corners of the pixels
+     * If not, the vertices are boundary pixel coordinates that still need repositioning to be pixel-perfect
+     *
+     * @return determines if the vertices are pixel-perfect as traced
+     */
+    public boolean tracesCorners();
+}
@@ -0,0 +1,589 @@
+package com.base.engine.imageparsing;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Simplifies closed loops with the Ramer-Douglas-Peucker algorithm, keeping every vertex further from the simplified line than the tolerance
+ * The loop is anchored at its two vertices furthest apart, found from its convex hull, and the two chains between them are reduced separately.
+ * Chains waiting to be split are kept on an explicit stack rather than recursed into, so long outlines can't overflow the call stack
+ *
+ * Finding the furthest vertex from each line can either scan every vertex of the chain, or search a tree of convex hulls over the loop.
+ * Each node of the tree holds the hull of a run of vertices, and the furthest vertex of a run from a line always lies on its hull,
+ * found by a binary search along it. This makes each search O(log^2 n) instead of O(n), so staircase outlines that split
+ * one vertex at a time no longer take O(n^2). Where several vertices are equally far from a line the two searches may keep different ones
+ *
+ * @author Jordan
+ */
+public final class DouglasPeuckerSimplifier
+{
+    //number of vertices in each leaf of the hull tree, searched one by one
+    private static final int BLOCK_SIZE = 32;
+
+    private final float tolerance;
+    private final boolean hullSearch;
+
+    /**
+     * Declare the settings of the simplification
+     *
+     * @param tolerance Greatest distance a removed vertex may lie from the simplified line
+     * @param hullSearch Determines if the furthest vertex from each line is found through a tree of convex hulls rather than by scanning
+     */
+    public DouglasPeuckerSimplifier(float tolerance, boolean hullSearch)
+    {
+        this.tolerance = tolerance;
+        this.hullSearch = hullSearch;
+    }
+
+    /**
+     * Simplify a closed loop, keeping its remaining vertices in their original order
+     *
+     * @param loop Vertices of the loop, the last joining back onto the first
+     * @return Simplified loop
+     */
+    public FloatContour simplify(Contour loop)
+    {
+        int size = loop.size();
+        FloatContour simplified = new FloatContour(size);
+        if(size < 3)
+        {
+            for(int i = 0; i < size; i++)
+            {
+                simplified.add(loop, i);
+            }
+            return simplified;
+        }
+
+        int[] anchors = furthestPair(loop);
+        int start = anchors[0];
+        boolean[] marked = new Reduction(loop, start).reduce((anchors[1] - start + size) % size);
+
+        for(int i = 0; i < size; i++)
+        {
+            if(marked[(i - start + size) % size])
+            {
+                simplified.add(loop, i);
+            }
+        }
+        return simplified;
+    }
+
+    /**
+     * Find the two vertices of a loop furthest apart from each other, using rotating calipers around its convex hull
+     *
+     * @param loop Vertices of the loop
+     * @return Indices of the two vertices, the second being the first if every vertex is in the same place
+     */
+    private static int[] furthestPair(final Contour loop)
+    {
+        Integer[] order = new Integer[loop.size()];
+        for(int i = 0; i < order.length; i++)
+        {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>()
+        {
+            @Override
+            public int compare(Integer a, Integer b)
+            {
+                int byX = Float.compare(loop.getX(a), loop.getX(b));
+                return byX != 0 ? byX : Float.compare(loop.getY(a), loop.getY(b));
+            }
+        });
+
+        //lower hull from left to right, then upper hull from right to left, giving the hull counter-clockwise
+        int[] hull = new int[order.length + 1];
+        int size = 0;
+        for(int i = 0; i < order.length; i++)
+        {
+            while(size >= 2 && cross(loop, hull[size - 2], hull[size - 1], order[i]) <= 0)
+            {
+                size--;
+            }
+            hull[size++] = order[i];
+        }
+        int lower = size + 1;
+        for(int i = order.length - 2; i >= 0; i--)
+        {
+            while(size >= lower && cross(loop, hull[size - 2], hull[size - 1], order[i]) <= 0)
+            {
+                size--;
+            }
+            hull[size++] = order[i];
+        }
+        //the last vertex added is the first one again
+        size = Math.max(1, size - 1);
+
+        int[] pair = {hull[0], hull[0]};
+        double furthest = 0;
+        int j = 1 % size;
+        for(int i = 0; i < size; i++)
+        {
+            int next = (i + 1) % size;
+            //move the opposite caliper round while it gets further from this edge
+            while(Math.abs(cross(loop, hull[i], hull[next], hull[(j + 1) % size])) > Math.abs(cross(loop, hull[i], hull[next], hull[j])))
+            {
+                j = (j + 1) % size;
+            }
+            double distance = distanceSquared(loop, hull[i], hull[j]);
+            if(distance > furthest)
+            {
+                furthest = distance;
+                pair[0] = hull[i];
+                pair[1] = hull[j];
+            }
+            distance = distanceSquared(loop, hull[next], hull[j]);
+            if(distance > furthest)
+            {
+                furthest = distance;
+                pair[0] = hull[next];
+                pair[1] = hull[j];
+            }
+        }
+        return pair;
+    }
+
+    /**
+     * Get twice the signed area of the triangle made by three vertices of a loop
+     *
+     * @param loop Loop holding the vertices
+     * @param o Index of the first vertex
+     * @param a Index of the second vertex
+     * @param b Index of the third vertex
+     * @return Positive if the vertices turn counter-clockwise, negative if clockwise and 0 if they are in a line
+     */
+    private static double cross(Contour loop, int o, int a, int b)
+    {
+        double ox = loop.getX(o);
+        double oy = loop.getY(o);
+        return ((loop.getX(a) - ox) * (loop.getY(b) - oy)) - ((loop.getY(a) - oy) * (loop.getX(b) - ox));
+    }
+
+    /**
+     * Get the squared distance between two vertices of a loop
+     *
+     * @param loop Loop holding the vertices
+     * @param a Index of the first vertex
+     * @param b Index of the second vertex
+     * @return Squared distance
+     */
+    private static double distanceSquared(Contour loop, int a, int b)
+    {
+        double dx = loop.getX(a) - loop.getX(b);
+        double dy = loop.getY(a) - loop.getY(b);
+        return (dx * dx) + (dy * dy);
+    }
+
+    /**
+     * Reduction of a single loop, walked from its first anchor all the way round back to it so that both chains run forwards
+     */
+    private class Reduction
+    {
+        //vertices of the loop in the order they are walked, the last being the first anchor again
+        private final float[] xs;
+        private final float[] ys;
+        private final HullTree tree;
+
+        /**
+         * Lay out the vertices of a loop from an anchor
+         *
+         * @param loop Vertices of the loop
+         * @param start Index of the anchor the walk starts from
+         */
+        Reduction(Contour loop, int start)
+        {
+            int size = loop.size();
+            xs = new float[size + 1];
+            ys = new float[size + 1];
+            for(int p = 0; p <= size; p++)
+            {
+                xs[p] = loop.getX((start + p) % size);
+                ys[p] = loop.getY((start + p) % size);
+            }
+            tree = hullSearch ? new HullTree() : null;
+        }
+
+        /**
+         * Mark every vertex kept by the simplification
+         *
+         * @param middle Position of the second anchor
+         * @return Determines for each position along the walk if its vertex is kept
+         */
+        boolean[] reduce(int middle)
+        {
+            int size = xs.length - 1;
+            boolean[] marked = new boolean[size + 1];
+            marked[0] = true;
+            marked[middle] = true;
+
+            //chains still to be split, as pairs of first and last position
+            int[] stack = new int[64];
+            int top = 0;
+            stack[top++] = 0;
+            stack[top++] = middle;
+            stack[top++] = middle;
+            stack[top++] = size;
+            while(top > 0)
+            {
+                int last = stack[--top];
+                int first = stack[--top];
+                if(last - first < 2)
+                {
+                    continue;
+                }
+
+                int furthest = hullSearch ? tree.furthest(first, last) : scanFurthest(first, last);
+                if(furthest != -1)
+                {
+                    marked[furthest] = true;
+                    if(top + 4 > stack.length)
+                    {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[top++] = first;
+                    stack[top++] = furthest;
+                    stack[top++] = furthest;
+                    stack[top++] = last;
+                }
+            }
+            return marked;
+        }
+
+        /**
+         * Scan a chain for the vertex furthest from the line between its ends
+         *
+         * @param first Position of the first end of the chain
+         * @param last Position of the last end of the chain
+         * @return Position of the furthest vertex, or -1 if none lie further than the tolerance
+         */
+        private int scanFurthest(int first, int last)
+        {
+            double lineX = xs[last] - xs[first];
+            double lineY = ys[last] - ys[first];
+            double length = Math.hypot(lineX, lineY);
+
+            double furthestDistance = 0;
+            int furthest = -1;
+            for(int p = first + 1; p < last; p++)
+            {
+                double distance = distance(p, first, lineX, lineY, length);
+                if(distance > furthestDistance)
+                {
+                    furthestDistance = distance;
+                    furthest = p;
+                }
+            }
+            return furthestDistance > tolerance ? furthest : -1;
+        }
+
+        /**
+         * Get the distance of a vertex from the line through the first end of a chain
+         * If both ends of the chain are in the same place, the distance to that place is used instead
+         *
+         * @param p Position of the vertex
+         * @param first Position of the first end of the chain
+         * @param lineX Distance along X from the first end of the chain to the last
+         * @param lineY Distance along Y from the first end of the chain to the last
+         * @param length Length of the line between the ends
+         * @return Distance of the vertex
+         */
+        private double distance(int p, int first, double lineX, double lineY, double length)
+        {
+            double dx = xs[p] - xs[first];
+            double dy = ys[p] - ys[first];
+            if(length == 0)
+            {
+                return Math.hypot(dx, dy);
+            }
+            return Math.abs((lineX * dy) - (lineY * dx)) / length;
+        }
+
+        /**
+         * Segment tree over the positions of the loop, each node holding the convex hull of the vertices in its range
+         * Leaves cover blocks of BLOCK_SIZE positions. Hulls are kept as an upper and a lower chain, each running from left to right,
+         * and a node's chains are built from its children's chains alone since no vertex inside a child's hull can be on the node's hull
+         */
+        private class HullTree
+        {
+            private final int blocks;
+            private final int leaves;
+            private final int[][] upper;
+            private final int[][] lower;
+
+            /**
+             * Build the hulls of every node
+             */
+            HullTree()
+            {
+                blocks = ((xs.length - 1) / BLOCK_SIZE) + 1;
+                int count = 1;
+                while(count < blocks)
+                {
+                    count *= 2;
+                }
+                leaves = count;
+                upper = new int[leaves * 2][];
+                lower = new int[leaves * 2][];
+
+                for(int b = 0; b < leaves; b++)
+                {
+                    int first = Math.min(b * BLOCK_SIZE, xs.length);
+                    int last = Math.min(first + BLOCK_SIZE, xs.length);
+                    int[] sorted = new int[last - first];
+                    for(int p = first; p < last; p++)
+                    {
+                        sorted[p - first] = p;
+                    }
+                    sortPositions(sorted);
+                    upper[leaves + b] = chain(sorted, sorted.length, true);
+                    lower[leaves + b] = chain(sorted, sorted.length, false);
+                }
+                for(int node = leaves - 1; node > 0; node--)
+                {
+                    upper[node] = merge(upper[node * 2], upper[(node * 2) + 1], true);
+                    lower[node] = merge(lower[node * 2], lower[(node * 2) + 1], false);
+                }
+            }
+
+            /**
+             * Find the vertex strictly between the ends of a chain that lies furthest from the line between them
+             *
+             * @param first Position of the first end of the chain
+             * @param last Position of the last end of the chain
+             * @return Position of the furthest vertex, or -1 if none lie further than the tolerance
+             */
+            int furthest(int first, int last)
+            {
+                double lineX = xs[last] - xs[first];
+                double lineY = ys[last] - ys[first];
+                double length = Math.hypot(lineX, lineY);
+                if(length == 0)
+                {
+                    //distance from a single point isn't found on a hull
+                    return scanFurthest(first, last);
+                }
+
+                int from = first + 1;
+                int to = last - 1;
+                int fromBlock = from / BLOCK_SIZE;
+                int toBlock = to / BLOCK_SIZE;
+
+                Candidate best = new Candidate();
+                if(fromBlock == toBlock)
+                {
+                    scan(best, from, to, first, lineX, lineY, length);
+                }
+                else
+                {
+                    //the partial blocks at either end are scanned, the whole blocks between them are searched through their hulls
+                    scan(best, from, ((fromBlock + 1) * BLOCK_SIZE) - 1, first, lineX, lineY, length);
+                    scan(best, toBlock * BLOCK_SIZE, to, first, lineX, lineY, length);
+                    int left = fromBlock + 1 + leaves;
+                    int right = toBlock - 1 + leaves;
+                    while(left <= right)
+                    {
+                        if((left & 1) == 1)
+                        {
+                            search(best, left++, first, lineX, lineY, length);
+                        }
+                        if((right & 1) == 0)
+                        {
+                            search(best, right--, first, lineX, lineY, length);
+                        }
+                        left /= 2;
+                        right /= 2;
+                    }
+                }
+                return best.distance > tolerance ? best.position : -1;
+            }
+
+            /**
+             * Check every position of a run against the furthest vertex found so far
+             *
+             * @param best Furthest vertex found so far
+             * @param from First position of the run
+             * @param to Last position of the run
+             * @param first Position of the first end of the chain
+             * @param lineX Distance along X from the first end of the chain to the last
+             * @param lineY Distance along Y from the first end of the chain to the last
+             * @param length Length of the line between the ends
+             */
+            private void scan(Candidate best, int from, int to, int first, double lineX, double lineY, double length)
+            {
+                for(int p = from; p <= to; p++)
+                {
+                    best.offer(p, distance(p, first, lineX, lineY, length));
+                }
+            }
+
+            /**
+             * Check the vertices of a node's hull furthest to either side of a line against the furthest vertex found so far
+             *
+             * @param best Furthest vertex found so far
+             * @param node Node of the tree
+             * @param first Position of the first end of the chain
+             * @param lineX Distance along X from the first end of the chain to the last
+             * @param lineY Distance along Y from the first end of the chain to the last
+             * @param length Length of the line between the ends
+             */
+            private void search(Candidate best, int node, int first, double lineX, double lineY, double length)
+            {
+                //normal of the line, the furthest vertex on either side being the one furthest along it or against it
+                double normalX = -lineY;
+                double normalY = lineX;
+                int p = extreme(normalY > 0 ? upper[node] : lower[node], normalX, normalY);
+                best.offer(p, distance(p, first, lineX, lineY, length));
+                p = extreme(normalY < 0 ? upper[node] : lower[node], -normalX, -normalY);
+                best.offer(p, distance(p, first, lineX, lineY, length));
+            }
+
+            /**
+             * Binary search along a hull chain for the vertex furthest in a direction
+             * Along the upper chain this is only valid for directions pointing up and along the lower chain for directions pointing down or straight across,
+             * where the distance in the direction rises and then falls along the chain
+             *
+             * @param chain Positions of the chain from left to right
+             * @param dx Direction along X
+             * @param dy Direction along Y
+             * @return Position of the furthest vertex in the direction
+             */
+            private int extreme(int[] chain, double dx, double dy)
+            {
+                int low = 0;
+                int high = chain.length - 1;
+                while(low < high)
+                {
+                    int mid = (low + high) >>> 1;
+                    double step = ((xs[chain[mid + 1]] - xs[chain[mid]]) * dx) + ((ys[chain[mid + 1]] - ys[chain[mid]]) * dy);
+                    if(step > 0)
+                    {
+                        low = mid + 1;
+                    }
+                    else
+                    {
+                        high = mid;
+                    }
+                }
+                return chain[low];
+            }
+
+            /**
+             * Build the upper or lower chain of two children's chains together
+             *
+             * @param a Chain of the left child
+             * @param b Chain of the right child
+             * @param isUpper Determines if the upper chain is being built
+             * @return Chain of the node
+             */
+            private int[] merge(int[] a, int[] b, boolean isUpper)
+            {
+                int[] sorted = new int[a.length + b.length];
+                int i = 0;
+                int j = 0;
+                int k = 0;
+                while(i < a.length && j < b.length)
+                {
+                    sorted[k++] = comparePositions(a[i], b[j]) <= 0 ? a[i++] : b[j++];
+                }
+                while(i < a.length)
+                {
+                    sorted[k++] = a[i++];
+                }
+                while(j < b.length)
+                {
+                    sorted[k++] = b[j++];
+                }
+                return chain(sorted, k, isUpper);
+            }
+
+            /**
+             * Build an upper or lower hull chain with Andrew's monotone chain
+             *
+             * @param sorted Positions sorted from left to right, then bottom to top
+             * @param count Number of positions to use
+             * @param isUpper Determines if the upper chain is being built
+             * @return Chain of positions from left to right
+             */
+            private int[] chain(int[] sorted, int count, boolean isUpper)
+            {
+                int[] hull = new int[count];
+                int size = 0;
+                for(int i = 0; i < count; i++)
+                {
+                    int p = sorted[i];
+                    while(size >= 2)
+                    {
+                        int o = hull[size - 2];
+                        int a = hull[size - 1];
+                        double turn = ((xs[a] - xs[o]) * (double)(ys[p] - ys[o])) - ((ys[a] - ys[o]) * (double)(xs[p] - xs[o]));
+                        if(isUpper ? turn < 0 : turn > 0)
+                        {
+                            break;
+                        }
+                        size--;
+                    }
+                    hull[size++] = p;
+                }
+                return Arrays.copyOf(hull, size);
+            }
+
+            /**
+             * Sort positions from left to right, then bottom to top
+             *
+             * @param positions Positions to sort
+             */
+            private void sortPositions(int[] positions)
+            {
+                //blocks are small, so an insertion sort is quickest
+                for(int i = 1; i < positions.length; i++)
+                {
+                    int p = positions[i];
+                    int j = i - 1;
+                    while(j >= 0 && comparePositions(positions[j], p) > 0)
+                    {
+                        positions[j + 1] = positions[j];
+                        j--;
+                    }
+                    positions[j + 1] = p;
+                }
+            }
+
+            /**
+             * Compare two positions from left to right, then bottom to top
+             *
+             * @param a First position
+             * @param b Second position
+             * @return Negative if the first comes first, positive if the second does and 0 if they are in the same place
+             */
+            private int comparePositions(int a, int b)
+            {
+                int byX = Float.compare(xs[a], xs[b]);
+                return byX != 0 ? byX : Float.compare(ys[a], ys[b]);
+            }
+        }
+    }
+
+    /**
+     * Furthest vertex found so far while searching a chain
+     */
+    private static class Candidate
+    {
+        private int position = -1;
+        private double distance = 0;
+
+        /**
+         * Keep a vertex if it is further than the furthest found so far, earlier positions winning ties
+         *
+         * @param p Position of the vertex
+         * @param d Distance of the vertex from the line
+         */
+        void offer(int p, double d)
+        {
+            if(d > distance || (d == distance && p < position))
+            {
+                position = p;
+                distance = d;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.base.engine.imageparsing;
+
+import java.util.Arrays;
+
+/**
+ * Contour whose vertices may lie anywhere, such as between pixels or on averaged positions
+ * Vertices are stored as X and Y pairs in a single float array
+ *
+ * @author Jordan
+ */
+public final class FloatContour extends Contour
+{
+    private float[] coords;
+
+    /**
+     * Create an empty contour
+     */
+    public FloatContour()
+    {
+        this(16);
+    }
+
+    /**
+     * Create an empty contour with room for a number of vertices before it has to grow
+     *
+     * @param capacity Number of vertices expected
+     */
+    public FloatContour(int capacity)
+    {
+        coords = new float[Math.max(4, capacity) * 2];
+    }
+
+    /**
+     * Add a vertex to the end of the contour
+     *
+     * @param x coordinate of the vertex along X
+     * @param y coordinate of the vertex along Y
+     */
+    public void add(float x, float y)
+    {
+        if(size * 2 == coords.length)
+        {
+            coords = Arrays.copyOf(coords, coords.length * 2);
+        }
+        coords[size * 2] = x;
+        coords[(size * 2) + 1] = y;
+        size++;
+    }
+
+    /**
+     * Add a vertex of another contour to the end of this one
+     *
+     * @param other Contour holding the vertex
+     * @param i Index of the vertex in the other contour
+     */
+    public void add(Contour other, int i)
+    {
+        add(other.getX(i), other.getY(i));
+    }
+
+    /**
+     * Move a vertex of the contour
+     *
+     * @param i Index of the vertex
+     * @param x New coordinate of the vertex along X
+     * @param y New coordinate of the vertex along Y
+     */
+    public void set(int i, float x, float y)
+    {
+        coords[i * 2] = x;
+        coords[(i * 2) + 1] = y;
+    }
+
+    @Override
+    public void translate(int dx, int dy)
+    {
+        for(int i = 0; i < size; i++)
+        {
+            coords[i * 2] += dx;
+            coords[(i * 2) + 1] += dy;
+        }
+    }
+
+    @Override
+    public float getX(int i)
+    {
+        return coords[i * 2];
+    }
+
+    @Override
+    public float getY(int i)
+    {
+        return coords[(i * 2) + 1];
+    }
+
+    @Override
+    long key(int i)
+    {
+        //the same bits Vec2 compares when checking two vectors are equal
+        return ((long)Float.floatToIntBits(getX(i)) << 32) | (Float.floatToIntBits(getY(i)) & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public FloatContour withoutDuplicates()
+    {
+        boolean[] first = firstOccurrences();
+        FloatContour unique = new FloatContour(size);
+        for(int i = 0; i < size; i++)
+        {
+            if(first[i])
+            {
+                unique.add(getX(i), getY(i));
+            }
+        }
+        return unique;
+    }
+}
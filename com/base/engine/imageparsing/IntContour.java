@@ -0,0 +1,174 @@
+package com.base.engine.imageparsing;
+
+import java.util.Arrays;
+
+/**
+ * Contour whose vertices all lie on whole pixel coordinates, such as pixel centres or pixel corners
+ * Each vertex is packed into a single long, X in the high half and Y in the low half
+ *
+ * @author Jordan
+ */
+public final class IntContour extends Contour
+{
+    private long[] points;
+
+    /**
+     * Create an empty contour
+     */
+    public IntContour()
+    {
+        this(16);
+    }
+
+    /**
+     * Create an empty contour with room for a number of vertices before it has to grow
+     *
+     * @param capacity Number of vertices expected
+     */
+    public IntContour(int capacity)
+    {
+        points = new long[Math.max(4, capacity)];
+    }
+
+    /**
+     * Pack a vertex into a long
+     *
+     * @param x coordinate of the vertex along X
+     * @param y coordinate of the vertex along Y
+     * @return Packed vertex
+     */
+    private static long pack(int x, int y)
+    {
+        return ((long)x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Add a vertex to the end of the contour
+     *
+     * @param x coordinate of the vertex along X
+     * @param y coordinate of the vertex along Y
+     */
+    public void add(int x, int y)
+    {
+        if(size == points.length)
+        {
+            points = Arrays.copyOf(points, size * 2);
+        }
+        points[size++] = pack(x, y);
+    }
+
+    /**
+     * Move a vertex of the contour
+     *
+     * @param i Index of the vertex
+     * @param x New coordinate of the vertex along X
+     * @param y New coordinate of the vertex along Y
+     */
+    public void set(int i, int x, int y)
+    {
+        points[i] = pack(x, y);
+    }
+
+    @Override
+    public void translate(int dx, int dy)
+    {
+        for(int i = 0; i < size; i++)
+        {
+            points[i] = pack(getIntX(i) + dx, getIntY(i) + dy);
+        }
+    }
+
+    /**
+     * Add every vertex of another contour to the end of this one
+     *
+     * @param other Contour we are adding
+     */
+    public void addAll(IntContour other)
+    {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.points, 0, points, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Add every vertex of another contour to the end of this one, last vertex first
+     *
+     * @param other Contour we are adding
+     */
+    public void addAllReversed(IntContour other)
+    {
+        ensureCapacity(size + other.size);
+        for(int i = other.size - 1; i >= 0; i--)
+        {
+            points[size++] = other.points[i];
+        }
+    }
+
+    /**
+     * Make room for a number of vertices
+     *
+     * @param capacity Number of vertices the contour must be able to hold
+     */
+    private void ensureCapacity(int capacity)
+    {
+        if(capacity > points.length)
+        {
+            points = Arrays.copyOf(points, Math.max(capacity, points.length * 2));
+        }
+    }
+
+    /**
+     * Get the X coordinate of a vertex as a whole number
+     *
+     * @param i Index of the vertex
+     * @return coordinate of the vertex along X
+     */
+    public int getIntX(int i)
+    {
+        return (int)(points[i] >> 32);
+    }
+
+    /**
+     * Get the Y coordinate of a vertex as a whole number
+     *
+     * @param i Index of the vertex
+     * @return coordinate of the vertex along Y
+     */
+    public int getIntY(int i)
+    {
+        return (int)points[i];
+    }
+
+    @Override
+    public float getX(int i)
+    {
+        return getIntX(i);
+    }
+
+    @Override
+    public float getY(int i)
+    {
+        return getIntY(i);
+    }
+
+    @Override
+    long key(int i)
+    {
+        return points[i];
+    }
+
+    @Override
+    public IntContour withoutDuplicates()
+    {
+        boolean[] first = firstOccurrences();
+        IntContour unique = new IntContour(size);
+        for(int i = 0; i < size; i++)
+        {
+            if(first[i])
+            {
+                unique.points[unique.size++] = points[i];
+            }
+        }
+        return unique;
+    }
+}
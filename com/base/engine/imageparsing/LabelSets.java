@@ -0,0 +1,131 @@
+package com.base.engine.imageparsing;
+
+import java.util.Arrays;
+
+/**
+ * Union-find of provisional pixel labels used while labelling an image
+ * Label 0 is always present and is kept for background connected to the outside of the image.
+ * When two sets are joined the lower label always becomes the root, so every label's parent is never above the label itself
+ *
+ * @author Jordan
+ */
+final class LabelSets
+{
+    //label shared by all background connected to the outside of the image
+    static final int EXTERIOR = 0;
+
+    private int[] parents = new int[64];
+    private int count = 1;
+
+    /**
+     * Create a new label in a set of its own
+     *
+     * @return The new label
+     */
+    int newLabel()
+    {
+        if(count == parents.length)
+        {
+            parents = Arrays.copyOf(parents, parents.length * 2);
+        }
+        parents[count] = count;
+        return count++;
+    }
+
+    /**
+     * Find the label at the root of a set of joined labels
+     *
+     * @param label Label we are searching from
+     * @return Root label of the set
+     */
+    int find(int label)
+    {
+        while(parents[label] != label)
+        {
+            //halve the path as we go so later searches are shorter
+            parents[label] = parents[parents[label]];
+            label = parents[label];
+        }
+        return label;
+    }
+
+    /**
+     * Join two labels into the same set
+     *
+     * @param a First label, or -1 if the pixel has no label yet
+     * @param b Second label
+     * @return Root label of the joined set
+     */
+    int join(int a, int b)
+    {
+        b = find(b);
+        if(a == -1)
+        {
+            return b;
+        }
+        a = find(a);
+        if(a < b)
+        {
+            parents[b] = a;
+            return a;
+        }
+        parents[a] = b;
+        return b;
+    }
+
+    /**
+     * Point every label straight at its root, after which the parent of a label is its root
+     * A single pass is enough since a label's parent is always below it and so already flattened
+     */
+    void flatten()
+    {
+        for(int i = 1; i < count; i++)
+        {
+            parents[i] = parents[parents[i]];
+        }
+    }
+
+    /**
+     * Get the root of a label once the sets have been flattened
+     *
+     * @param label Label we are checking
+     * @return Root label of the set
+     */
+    int root(int label)
+    {
+        return parents[label];
+    }
+
+    /**
+     * Copy the labels of another set of labels after the labels of this one
+     * The other set's exterior label is merged into this set's exterior label
+     *
+     * @param other Labels we are adding
+     * @return Amount to add to any label of the other set, other than the exterior, to get its new label
+     */
+    int append(LabelSets other)
+    {
+        int offset = count - 1;
+        if(count + other.count > parents.length)
+        {
+            parents = Arrays.copyOf(parents, Math.max(parents.length * 2, count + other.count));
+        }
+        for(int i = 1; i < other.count; i++)
+        {
+            int parent = other.parents[i];
+            parents[offset + i] = parent == EXTERIOR ? EXTERIOR : offset + parent;
+        }
+        count += other.count - 1;
+        return offset;
+    }
+
+    /**
+     * Get the number of labels, including the exterior label
+     *
+     * @return Number of labels created
+     */
+    int size()
+    {
+        return count;
+    }
+}
@@ -0,0 +1,311 @@
+package com.base.engine.imageparsing;
+
+/**
+ * Traces outlines by marching along the corners of the pixels rather than the pixels themselves
+ * Each step looks at the four pixels around a corner and moves along the pixel edge that keeps the shape on its left,
+ * so the outer boundary is traced counter-clockwise and holes clockwise.
+ * Shapes are treated as 8-connected, meaning pixels touching only diagonally are kept as part of the same outline
+ * Every pixel edge is travelled exactly once and only corners where the outline changes direction are kept as vertices
+ *
+ * The tracer can instead place its vertices halfway along the pixel edges, which cuts across the corner of every step in the outline.
+ * This gives vertices at half-pixel precision straight from the original image, where the parser used to double the image in size
+ *
+ * @author Jordan
+ */
+public class MarchingSquaresTracer implements ContourTracer
+{
+    public static final int EAST = 0;
+    public static final int NORTH = 1;
+    public static final int WEST = 2;
+    public static final int SOUTH = 3;
+
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, 1, 0, -1};
+
+    //direction to leave a corner, indexed by (corner code * 4) + direction the corner was entered from
+    //corner codes are made from the four pixels around the corner: 1 south-west, 2 south-east, 4 north-west, 8 north-east
+    //codes 6 and 9 are the two diagonal cases, where the outline always turns right so the diagonal pixels stay connected
+    private static final int[] NEXT =
+    {
+        -1, -1, -1, -1,                 //0: outside the shape
+        WEST, WEST, WEST, WEST,         //1
+        SOUTH, SOUTH, SOUTH, SOUTH,     //2
+        WEST, WEST, WEST, WEST,         //3
+        NORTH, NORTH, NORTH, NORTH,     //4
+        NORTH, NORTH, NORTH, NORTH,     //5
+        SOUTH, -1, NORTH, -1,           //6: north-west and south-east
+        NORTH, NORTH, NORTH, NORTH,     //7
+        EAST, EAST, EAST, EAST,         //8
+        -1, EAST, -1, WEST,             //9: south-west and north-east
+        SOUTH, SOUTH, SOUTH, SOUTH,     //10
+        WEST, WEST, WEST, WEST,         //11
+        EAST, EAST, EAST, EAST,         //12
+        EAST, EAST, EAST, EAST,         //13
+        SOUTH, SOUTH, SOUTH, SOUTH,     //14
+        -1, -1, -1, -1                  //15: inside the shape
+    };
+
+    private final boolean halfPixel;
+
+    /**
+     * Trace outlines with their vertices on the corners of the pixels
+     */
+    public MarchingSquaresTracer()
+    {
+        this(false);
+    }
+
+    /**
+     * Trace outlines with a choice of where their vertices are placed
+     *
+     * @param halfPixel Determines if vertices are placed halfway along the pixel edges rather than on the corners of the pixels
+     */
+    public MarchingSquaresTracer(boolean halfPixel)
+    {
+        this.halfPixel = halfPixel;
+    }
+
+    @Override
+    public Contour trace(PixelMask mask, int x, int y, PixelMask visited)
+    {
+        int startX, startY, startDir;
+
+        if(mask.get(x, y))
+        {
+            //begin along a side of the pixel that faces outside the shape
+            if(!mask.get(x - 1, y))
+            {
+                startX = x;
+                startY = y + 1;
+                startDir = SOUTH;
+            }
+            else if(!mask.get(x, y - 1))
+            {
+                startX = x;
+                startY = y;
+                startDir = EAST;
+            }
+            else if(!mask.get(x + 1, y))
+            {
+                startX = x + 1;
+                startY = y;
+                startDir = NORTH;
+            }
+            else if(!mask.get(x, y + 1))
+            {
+                startX = x + 1;
+                startY = y + 1;
+                startDir = WEST;
+            }
+            else
+            {
+                //the pixel only touches the outside of the shape diagonally, so begin from the corner it touches at
+                int corner = diagonalCorner(mask, x, y, false);
+                startX = x + (corner & 1);
+                startY = y + (corner >> 1);
+                startDir = -1;
+            }
+        }
+        else
+        {
+            //a background pixel, so begin along a side of it that faces into the shape
+            //the side below is checked first, since the first pixel of a hole always has the shape below it
+            if(mask.get(x, y - 1))
+            {
+                startX = x + 1;
+                startY = y;
+                startDir = WEST;
+            }
+            else if(mask.get(x - 1, y))
+            {
+                startX = x;
+                startY = y;
+                startDir = NORTH;
+            }
+            else if(mask.get(x + 1, y))
+            {
+                startX = x + 1;
+                startY = y + 1;
+                startDir = SOUTH;
+            }
+            else if(mask.get(x, y + 1))
+            {
+                startX = x;
+                startY = y + 1;
+                startDir = EAST;
+            }
+            else
+            {
+                //the pixel only touches the shape diagonally, so begin from the corner it touches at
+                int corner = diagonalCorner(mask, x, y, true);
+                startX = x + (corner & 1);
+                startY = y + (corner >> 1);
+                startDir = -1;
+            }
+        }
+        if(startDir == -1)
+        {
+            //a corner with only one pixel differing from the rest always has a single way out
+            startDir = NEXT[code(mask, startX, startY) * 4];
+            if(startDir == -1)
+            {
+                return null;
+            }
+        }
+
+        //corners are always whole pixel coordinates, edge midpoints are not
+        IntContour corners = halfPixel ? null : new IntContour();
+        FloatContour midpoints = halfPixel ? new FloatContour() : null;
+        int cx = startX;
+        int cy = startY;
+        int dir = startDir;
+        //direction of the edge before the current one, and of the edge after the first one
+        int previous = -1;
+        int firstNext = -1;
+
+        //every edge is travelled once, so the outline can't be longer than the number of edges in the image
+        long limit = 4L * (mask.getWidth() + 1) * (mask.getHeight() + 1);
+        for(long i = 0; i < limit; i++)
+        {
+            cx += DX[dir];
+            cy += DY[dir];
+
+            int code = code(mask, cx, cy);
+            mark(visited, code, cx, cy);
+
+            int next = NEXT[(code * 4) + dir];
+            if(next == -1)
+            {
+                //fell off the outline, something is wrong with the mask
+                return null;
+            }
+            if(halfPixel)
+            {
+                //the line between edge midpoints only bends at an edge whose neighbours run in different directions
+                //the first edge's neighbour before it isn't known until the loop closes
+                if(previous == -1)
+                {
+                    firstNext = next;
+                }
+                else if(previous != next)
+                {
+                    midpoints.add(cx - (DX[dir] * 0.5f), cy - (DY[dir] * 0.5f));
+                }
+            }
+            else if(next != dir)
+            {
+                corners.add(cx, cy);
+            }
+            if(cx == startX && cy == startY && next == startDir)
+            {
+                if(halfPixel && dir != firstNext)
+                {
+                    midpoints.add(startX + (DX[startDir] * 0.5f), startY + (DY[startDir] * 0.5f));
+                }
+                return halfPixel ? midpoints : corners;
+            }
+            previous = dir;
+            dir = next;
+        }
+
+        System.out.println("Error: Outline never closed");
+        return null;
+    }
+
+    @Override
+    public boolean tracesCorners()
+    {
+        return true;
+    }
+
+    /**
+     * Get the direction to leave a corner in
+     *
+     * @param code Code of the corner
+     * @param dir Direction the corner was entered from
+     * @return Direction to leave the corner in, or -1 if the corner can't be entered that way
+     */
+    static int next(int code, int dir)
+    {
+        return NEXT[(code * 4) + dir];
+    }
+
+    /**
+     * Find which corner of a pixel touches a diagonal neighbour of the given kind
+     *
+     * @param mask Mask of the image being traced
+     * @param x coordinate of the pixel along X
+     * @param y coordinate of the pixel along Y
+     * @param shape Determines if we are looking for a shape pixel or a background pixel
+     * @return 0 for the south-west corner, 1 for south-east, 2 for north-west and 3 for north-east
+     */
+    private static int diagonalCorner(PixelMask mask, int x, int y, boolean shape)
+    {
+        for(int i = 0; i < 3; i++)
+        {
+            if(mask.get(x - 1 + ((i & 1) * 2), y - 1 + ((i >> 1) * 2)) == shape)
+            {
+                return i;
+            }
+        }
+        return 3;
+    }
+
+    /**
+     * Get the code of a corner from the four pixels surrounding it
+     *
+     * @param mask Mask of the image being traced
+     * @param cx coordinate of the corner along X
+     * @param cy coordinate of the corner along Y
+     * @return Code of the corner, from 0 to 15
+     */
+    private static int code(PixelMask mask, int cx, int cy)
+    {
+        int code = 0;
+        if(mask.get(cx - 1, cy - 1))
+        {
+            code |= 1;
+        }
+        if(mask.get(cx, cy - 1))
+        {
+            code |= 2;
+        }
+        if(mask.get(cx - 1, cy))
+        {
+            code |= 4;
+        }
+        if(mask.get(cx, cy))
+        {
+            code |= 8;
+        }
+        return code;
+    }
+
+    /**
+     * Mark every shape pixel around a corner as visited
+     *
+     * @param visited Mask of visited pixels
+     * @param code Code of the corner
+     * @param cx coordinate of the corner along X
+     * @param cy coordinate of the corner along Y
+     */
+    private static void mark(PixelMask visited, int code, int cx, int cy)
+    {
+        if((code & 1) != 0)
+        {
+            visited.set(cx - 1, cy - 1);
+        }
+        if((code & 2) != 0)
+        {
+            visited.set(cx, cy - 1);
+        }
+        if((code & 4) != 0)
+        {
+            visited.set(cx - 1, cy);
+        }
+        if((code & 8) != 0)
+        {
+            visited.set(cx, cy);
+        }
+    }
+}
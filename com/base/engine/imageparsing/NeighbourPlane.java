@@ -0,0 +1,148 @@
+package com.base.engine.imageparsing;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Occupancy of the 8 pixels around every pixel of a mask, worked out once so that later stages read one byte per pixel
+ * instead of probing the mask around it over and over.
+ * Bit 0 is the bottom-left neighbour and bit 7 the top-right, running along each row from left to right
+ * and skipping the centre pixel, which is read from the mask itself
+ *
+ * Large masks can have their rows split into strips, each filled in its own fork/join task
+ *
+ * @author Jordan
+ */
+final class NeighbourPlane
+{
+    //neighbours of a pixel within a neighbour code
+    static final int BOTTOM_LEFT = 1;
+    static final int BOTTOM = 1 << 1;
+    static final int BOTTOM_RIGHT = 1 << 2;
+    static final int LEFT = 1 << 3;
+    static final int RIGHT = 1 << 4;
+    static final int TOP_LEFT = 1 << 5;
+    static final int TOP = 1 << 6;
+    static final int TOP_RIGHT = 1 << 7;
+    static final int DIAGONALS = BOTTOM_LEFT | BOTTOM_RIGHT | TOP_LEFT | TOP_RIGHT;
+    static final int ALL = 0xFF;
+
+    //strips any thinner than this aren't worth handing to another thread
+    private static final int MIN_STRIP_HEIGHT = 64;
+
+    private final PixelMask mask;
+    private final int width;
+    private final int height;
+    private final byte[] codes;
+
+    /**
+     * Work out the neighbour code of every pixel of a mask
+     *
+     * @param mask Mask of every pixel in the image that has an alpha value
+     * @param pool Pool to fill the strips on, or null to fill the whole plane on the calling thread
+     */
+    NeighbourPlane(PixelMask mask, ForkJoinPool pool)
+    {
+        this.mask = mask;
+        width = mask.getWidth();
+        height = mask.getHeight();
+        codes = new byte[width * height];
+
+        int stripCount = pool == null ? 1 : Math.min(pool.getParallelism() * 4, height / MIN_STRIP_HEIGHT);
+        if(stripCount <= 1)
+        {
+            fill(0, height);
+            return;
+        }
+
+        final StripFiller[] strips = new StripFiller[stripCount];
+        for(int i = 0; i < stripCount; i++)
+        {
+            strips[i] = new StripFiller((int)((long)height * i / stripCount), (int)((long)height * (i + 1) / stripCount));
+        }
+        pool.invoke(new RecursiveAction()
+        {
+            @Override
+            protected void compute()
+            {
+                invokeAll(strips);
+            }
+        });
+    }
+
+    /**
+     * Fill in the neighbour codes of a run of rows
+     *
+     * @param y0 First row to fill
+     * @param y1 Row after the last row to fill
+     */
+    private void fill(int y0, int y1)
+    {
+        for(int y = y0; y < y1; y++)
+        {
+            int row = y * width;
+            for(int x = 0; x < width; x++)
+            {
+                codes[row + x] = (byte)code(mask.neighbourhood(x, y));
+            }
+        }
+    }
+
+    /**
+     * Get the neighbour code of a pixel
+     * Pixels outside of the image, up to PixelMask.PAD - 1 pixels away, are worked out from the mask instead
+     *
+     * @param x coordinate of the pixel along X
+     * @param y coordinate of the pixel along Y
+     * @return 8-bit occupancy of the pixels around the pixel
+     */
+    int get(int x, int y)
+    {
+        if(x < 0 || x >= width || y < 0 || y >= height)
+        {
+            return code(mask.neighbourhood(x, y));
+        }
+        return codes[(y * width) + x] & ALL;
+    }
+
+    /**
+     * Drop the centre pixel out of a 3x3 block read from the mask
+     *
+     * @param block 9-bit occupancy of the block, as read by PixelMask.neighbourhood
+     * @return 8-bit occupancy of the pixels around the centre
+     */
+    static int code(int block)
+    {
+        return (block & 0xF) | ((block >>> 1) & 0xF0);
+    }
+
+    /**
+     * Fills in the neighbour codes of a strip of rows
+     * Strips only ever write to their own rows, so any number can be filled at the same time
+     */
+    private class StripFiller extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int y0;
+        private final int y1;
+
+        /**
+         * Declare a strip of rows
+         *
+         * @param y0 First row of the strip
+         * @param y1 Row after the last row of the strip
+         */
+        StripFiller(int y0, int y1)
+        {
+            this.y0 = y0;
+            this.y1 = y1;
+        }
+
+        @Override
+        protected void compute()
+        {
+            fill(y0, y1);
+        }
+    }
+}
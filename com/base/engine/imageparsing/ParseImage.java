@@ -1,14 +1,20 @@
 package com.base.engine.imageparsing;
 
+import com.base.engine.ProgressThrottle;
 import com.base.simulation.GUI;
 import com.base.simulation.Simulation;
-import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
-import java.awt.image.AffineTransformOp;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import org.jbox2d.common.Vec2;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 /**
  * Algorithms for taking an image and parsing it into a series of points
@@ -18,74 +24,265 @@ import org.jbox2d.common.Vec2;
  */
 public final class ParseImage
 {
-    private BufferedImage img;
-    private ArrayList<Vec2> points  = new ArrayList<Vec2>();
-    private ArrayList<ArrayList<Vec2>> holes = new ArrayList<ArrayList<Vec2>>();
-    private ArrayList<Vec2> holePoints = new ArrayList<Vec2>();
-    private ArrayList<Vec2> holeTotals = new ArrayList<Vec2>();
+    //images with at least this many pixels are labelled in strips across all processors
+    private static final long PARALLEL_PIXELS = 1 << 20;
+    
+    //corner each 8-bit neighbour code moves a traced point onto
+    private static final byte[] CORNERS = buildCorners();
+    
+    private PixelMask mask;
+    //position within the image of the rectangle the mask was cropped to
+    private int cropX = 0;
+    private int cropY = 0;
+    //occupancy around every pixel of the mask, only worked out once a stage first asks for it
+    private NeighbourPlane neighbours;
+    //pixels already part of the boundary or of a hole, and pixels part of the loop currently being traversed
+    private PixelMask traced, tracing;
+    //the pixel by pixel trace builds whole pixel contours, the tracers replace them with their own
+    private Contour points = new IntContour();
+    private ArrayList<Contour> holes = new ArrayList<Contour>();
+    private IntContour holePoints = new IntContour();
+    private ArrayList<TracedShape> shapes = new ArrayList<TracedShape>();
     private boolean doHoles = false;
+    private final ParseOptions options;
+    private final ContourTracer tracer;
+    private final ProgressThrottle progress;
     
     /**
-     * Initialise the priliminary algorithm
+     * Initialise the priliminary algorithm using the settings currently chosen in the GUI
      * 
      * @param path Filepath of the image to parse 
      */
     public ParseImage(String path)
     {
-        try
+        this(path, GUI.getParseOptions());
+    }
+    
+    /**
+     * Initialise the priliminary algorithm with a given set of settings
+     * Raw masks are mapped straight from file and PNG images have only their alpha decoded,
+     * any other image is loaded through the simulation's texture loader
+     * 
+     * @param path Filepath of the image or raw mask to parse 
+     * @param options Settings to parse the image with
+     */
+    public ParseImage(String path, ParseOptions options)
+    {
+        this(loadMask(path, options.getAlphaThreshold()), options);
+    }
+    
+    /**
+     * Initialise the priliminary algorithm on an image already in memory
+     * Touches no GUI or simulation state, so any number of images can be parsed at once on different threads
+     * 
+     * @param image Image to parse
+     * @param options Settings to parse the image with
+     */
+    public ParseImage(BufferedImage image, ParseOptions options)
+    {
+        this(readMask(image, options.getAlphaThreshold()), options);
+    }
+    
+    /**
+     * Initialise the priliminary algorithm on a mask of the pixels that have an alpha value
+     * Touches no GUI or simulation state, so any number of masks can be parsed at once on different threads.
+     * The mask is first cropped to the rectangle around its set pixels, every later stage only looking within it,
+     * and every point found is moved back into the coordinates of the whole image
+     * 
+     * @param mask Mask to parse, with row 0 being the bottom row of the image, or null if the image couldn't be read
+     * @param options Settings to parse the mask with
+     */
+    public ParseImage(PixelMask mask, ParseOptions options)
+    {
+        this.options = options;
+        this.tracer = options.getTracer();
+        this.progress = new ProgressThrottle(options.getProgressListener());
+        this.mask = mask;
+
+        status("Begin parsing...");
+        if(mask == null)
         {
-            img = Simulation.getTextureLoader().loadImage(path);
+            //nothing could be read, so the parse is left without any points
+            status("Image not found");
+            progress.flush();
+            return;
         }
-        catch (IOException e)
+        //images are often mostly transparent padding, which none of the stages need to look at
+        Rectangle bounds = mask.getBounds();
+        if(bounds != null && (bounds.width < mask.getWidth() || bounds.height < mask.getHeight()))
         {
-            System.out.println("Error: Image not found");
+            this.mask = mask.crop(bounds);
+            cropX = bounds.x;
+            cropY = bounds.y;
+            status("Cropped to " + bounds.width + "x" + bounds.height + " at (" + cropX + ", " + cropY + ")");
         }
+        traced = new PixelMask(this.mask.getWidth(), this.mask.getHeight());
+        tracing = new PixelMask(this.mask.getWidth(), this.mask.getHeight());
         
-        BufferedImage invertedImage = null;
-        Graphics2D graphics2D;
-        AffineTransform at;
-        if(!GUI.doubleBuffer)
+        //begin the parser algorithm
+        if(tracer != null)
         {
-            //ensure the image can handle transparency
-            invertedImage = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_INT_ARGB);
-
-            //transform the image into a graphics2d object for transformation
-            graphics2D = invertedImage.createGraphics();
-            at = new AffineTransform();
-            at.scale(1, -1);
-            at.translate(0, -img.getHeight());
-
-            graphics2D.drawImage(img, at, null);
+            traceRegions();
         }
         else
         {
-            //don't understand it, but it works!
-            //Also it's really slow! AT LEAST doubling the processing time
-            //It is also essentially doubling the number of points within the same space
-            //This skews polygonization a bit
-            invertedImage = new BufferedImage(img.getWidth() * 2, img.getHeight() * 2, BufferedImage.TYPE_INT_ARGB);
-            graphics2D = invertedImage.createGraphics();
-            at = AffineTransform.getScaleInstance(1, -1);
-            at.translate(0, -img.getHeight(null));
-            AffineTransformOp op = new AffineTransformOp(at, AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
-            img = op.filter(img, null);
-            graphics2D.drawImage(img, 0, 0, img.getWidth() * 2, img.getHeight() * 2, null);
+            loopOverImage();
+            shapes.add(new TracedShape(points, holes));
         }
-        graphics2D.dispose();
-
-        GUI.txtOutput.setText("Begin parsing...");
-        img = invertedImage;
+        progress.flush();
+    }
+    
+    /**
+     * Initialise the priliminary algorithm on an image streamed from file in bands of rows
+     * Only a band of the image is held in memory at a time, so images too large to load whole can still be parsed.
+     * Outlines are always traced along the pixel corners and no mask of the image is kept,
+     * so the simplifiers that look at the image around each point fall back to Ramer-Douglas-Peucker
+     * 
+     * @param file Image file to parse
+     * @param options Settings to parse the image with, the tracer is ignored
+     * @param bandHeight Number of rows decoded at a time
+     * @throws IOException if the image can't be read
+     */
+    public ParseImage(File file, ParseOptions options, int bandHeight) throws IOException
+    {
+        this.options = options;
+        this.tracer = null;
+        this.progress = new ProgressThrottle(options.getProgressListener());
         
-        //begin the parser algorithm
-        loopOverImage();
+        status("Begin parsing...");
+        ImageInputStream stream = ImageIO.createImageInputStream(file);
+        if(stream == null)
+        {
+            throw new IOException("Image not found: " + file);
+        }
+        try
+        {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if(!readers.hasNext())
+            {
+                throw new IOException("No reader found for image: " + file);
+            }
+            ImageReader reader = readers.next();
+            try
+            {
+                //every band seeks back into the stream, so it can't be read forward only
+                reader.setInput(stream, false, true);
+                shapes = new StreamingTracer(reader, options.getAlphaThreshold(), bandHeight, progress).trace(options.checkHoles());
+            }
+            finally
+            {
+                reader.dispose();
+            }
+        }
+        finally
+        {
+            stream.close();
+        }
+        
+        if(!shapes.isEmpty())
+        {
+            points = shapes.get(0).getPoints();
+            holes = shapes.get(0).getHoles();
+        }
+        status("Image boundaries formed");
+        progress.flush();
+    }
+    
+    /**
+     * Load an image from file using the simulation's texture loader
+     * 
+     * @param path Filepath of the image
+     * @return Image loaded, or null if it could not be found
+     */
+    private static BufferedImage loadImage(String path)
+    {
+        try
+        {
+            return Simulation.getTextureLoader().loadImage(path);
+        }
+        catch (IOException e)
+        {
+            System.out.println("Error: Image not found");
+        }
+        return null;
+    }
+    
+    /**
+     * Load the mask of an image or raw mask from file, flipped so that its bottom row becomes row 0
+     * Raw masks and PNG images are read straight into the mask, anything else is decoded in full first,
+     * as is any PNG the alpha reader can't make sense of
+     * 
+     * @param path Filepath of the image or raw mask
+     * @param threshold Alpha a pixel must be above to be part of a shape
+     * @return Mask loaded, or null if it could not be read
+     */
+    private static PixelMask loadMask(String path, int threshold)
+    {
+        try
+        {
+            if(RawMask.isRawMask(path))
+            {
+                return RawMask.read(new File(path), threshold).flip();
+            }
+        }
+        catch (IOException e)
+        {
+            System.out.println("Error: " + e.getMessage());
+            return null;
+        }
+        if(PngAlphaReader.isPng(path))
+        {
+            try
+            {
+                //interlaced images can't be read a row at a time and are decoded in full below
+                PixelMask mask = PngAlphaReader.read(new File(path), threshold);
+                if(mask != null)
+                {
+                    return mask.flip();
+                }
+            }
+            catch (IOException e)
+            {
+                //the image decoders may still manage a file the alpha reader can't, so it is decoded in full below
+                System.out.println("Error: " + e.getMessage());
+            }
+        }
+        return readMask(loadImage(path), threshold);
+    }
+    
+    /**
+     * Read the alpha of every pixel in an image once, all later checks are made against this mask
+     * The image is flipped so that its bottom row becomes row 0, matching the coordinates of the Box2d world
+     * 
+     * @param image Image to read, or null if it could not be loaded
+     * @param threshold Alpha a pixel must be above to be part of a shape
+     * @return Mask of every pixel in the image with an alpha above the threshold, or null if there was no image
+     */
+    private static PixelMask readMask(BufferedImage image, int threshold)
+    {
+        if(image == null)
+        {
+            return null;
+        }
+        return PixelMask.fromImage(image, threshold).flip();
+    }
+    
+    /**
+     * Report progress of the parser to the listener given in its settings
+     * 
+     * @param message Text to show
+     */
+    private void status(String message)
+    {
+        progress.progress(message);
     }
     
     /**
      * Get the vertices extracted from the image
      * 
-     * @return Arraylist of vertices that make up the image's pixel outline
+     * @return Contour of the image's pixel outline
      */
-    public ArrayList<Vec2> getPoints()
+    public Contour getPoints()
     {
 	return points;
     }
@@ -93,13 +290,35 @@ public final class ParseImage
     /**
      * Get the list of holes in the image and their respective points extracted from the image
      * 
-     * @return Nested Arraylist of vertices, each nested arraylist representing an outline of a hole in the image
+     * @return List of the outlines of the holes in the image
      */
-    public ArrayList<ArrayList<Vec2>> getHoles()
+    public ArrayList<Contour> getHoles()
     {
         return holes;
     }
     
+    /**
+     * Get every shape found in the image, each with its own outline and holes
+     * The first shape is always the one given by getPoints and getHoles
+     * 
+     * @return List of the shapes in the image
+     */
+    public ArrayList<TracedShape> getShapes()
+    {
+        return shapes;
+    }
+    
+    /**
+     * Determine if the extracted points already lie on the pixel corners, in which case they need no repositioning
+     * 
+     * @return determines if the points are already pixel-perfect
+     */
+    public boolean isPixelPerfect()
+    {
+        //streamed images keep no mask and are always traced along the pixel corners
+        return mask == null || (tracer != null && tracer.tracesCorners());
+    }
+    
     /**
      * Determine if a pixel has an alpha value in a BufferedImage
      * 
@@ -109,11 +328,7 @@ public final class ParseImage
      */
     public boolean hasAlpha(int x, int y)
     {
-        if(!((img.getRGB(x, y) >>> 24) == 0x00))
-        {
-            return true;
-        }
-        return false;
+        return pointHasAlpha(x, y);
     }
     
     /**
@@ -126,20 +341,53 @@ public final class ParseImage
      */
     public boolean pointHasAlpha(int x, int y)
     {
-        if(x < 0 || x > (img.getWidth() - 1) || y < 0 || y > (img.getHeight() - 1))
+        //everything outside of the cropped mask is empty
+        x -= cropX;
+        y -= cropY;
+        if(x < 0 || x >= mask.getWidth() || y < 0 || y >= mask.getHeight())
         {
             return false;
         }
-        else
+        return mask.get(x, y);
+    }
+    
+    /**
+     * Get the pool that whole-image passes are split across
+     * 
+     * @return Common fork/join pool for large images, or null if the image is small enough to process on the calling thread
+     */
+    private ForkJoinPool pool()
+    {
+        boolean parallel = (long)mask.getWidth() * mask.getHeight() >= PARALLEL_PIXELS;
+        return parallel ? ForkJoinPool.commonPool() : null;
+    }
+    
+    /**
+     * Get the occupancy of the 8 pixels around a pixel
+     * Every stage that looks around a pixel reads from the same plane, which is filled in for the whole image on first use
+     * 
+     * @param x coordinate of the pixel along X
+     * @param y coordinate of the pixel along Y
+     * @return 8-bit neighbour code of the pixel, see NeighbourPlane
+     */
+    private int neighbourCode(int x, int y)
+    {
+        if(neighbours == null)
         {
-            if(hasAlpha(x, y))
-            {
-                return true;
-            }
-            else
-            {
-                return false;
-            }
+            neighbours = new NeighbourPlane(mask, pool());
+        }
+        return neighbours.get(x - cropX, y - cropY);
+    }
+    
+    /**
+     * Build everything the parser otherwise only builds once a stage first asks for it,
+     * so that any number of threads can then perfect and simplify the parser's contours at the same time
+     */
+    public void prepareForThreads()
+    {
+        if(mask != null && neighbours == null)
+        {
+            neighbours = new NeighbourPlane(mask, pool());
         }
     }
     
@@ -163,23 +411,8 @@ public final class ParseImage
      */
     public boolean isBoundary(int x, int y)
     {
-        if(!pointHasAlpha(x, y))
-        {
-            return false;
-        }
-        
-        for(int i = -1; i < 2; i++)
-        {
-            for(int j = -1; j < 2; j++)
-            {
-                if(!pointHasAlpha(x + i, y + j))
-                {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
+        //a pixel with alpha is on the boundary if any pixel around it is empty
+        return pointHasAlpha(x, y) && neighbourCode(x, y) != NeighbourPlane.ALL;
     }
     
     /**
@@ -187,54 +420,52 @@ public final class ParseImage
      */
     public void loopOverImage()
     {
-        if(img != null)
+        if(mask != null)
         {
+            //runs of pixels up each column, so that empty and solid stretches are stepped over whole
+            RunLengthMask runs = new RunLengthMask(mask);
+            
             outerloop:
             
             //start on the left of the image and slowly head right after each column of pixels is processed
-            for(int cx = 0; cx < img.getWidth(); cx++)      
+            for(int cx = 0; cx < mask.getWidth(); cx++)      
             {
-                //read from bottom to top of the image
-                for(int cy = 0; cy < img.getHeight(); cy++) 
+                //read from bottom to top of the image, visiting only the boundary pixels
+                for(int cy = runs.nextBoundary(cx, 0); cy < mask.getHeight(); cy = runs.nextBoundary(cx, cy + 1)) 
                 {
-                    if(!points.contains(new Vec2(cx, cy)) && !holeTotals.contains(new Vec2(cx, cy)))
+                    if(!traced.get(cx, cy))
                     {
-                        if(doHoles)
+                        if(doHoles && progress.isDue())
                         {
-                            GUI.txtOutput.setText("Searching for holes... (" + cx + ", " + cy + ")");
+                            progress.progress("Searching for holes... (" + (cx + cropX) + ", " + (cy + cropY) + ")");
                         }
-                        //if this is the first boundary pixel detected
-                        if(isBoundary(cx, cy))          
+                        //traverse the boundary of the image to extract it's coordinates
+                        traverseBoundary(cx + cropX, cy + cropY);   
+                        if(points == null)
                         {
-                            //traverse the boundary of the image to extract it's coordinates
-                            traverseBoundary(cx, cy);   
-                            if(GUI.checkHoles)
-                            {
-                                //the boundary of the shape is secured, so now do the holes
-                                doHoles = true;            
-                                //if a hole was found and mapped out
-                                if(holePoints.size() > 0)   
-                                {
-                                    //add to the list of holes
-                                    ArrayList<Vec2> t = new ArrayList<Vec2>();
-                                    holes.add(t);           
-                                }
-                                for(int i = 0; i < holePoints.size(); i++)
-                                {
-                                    holeTotals.add(holePoints.get(i));
-                                    holes.get(holes.size() - 1).add(holePoints.get(i));
-                                }
-                                holePoints.clear();
-                            }
-                            else
+                            //the boundary traversal failed, there is nothing more to be found
+                            break outerloop;
+                        }
+                        if(options.checkHoles())
+                        {
+                            //the boundary of the shape is secured, so now do the holes
+                            doHoles = true;            
+                            //if a hole was found and mapped out
+                            if(holePoints.size() > 0)   
                             {
-                                break outerloop;
+                                //add to the list of holes
+                                holes.add(holePoints);
+                                holePoints = new IntContour();
                             }
                         }
+                        else
+                        {
+                            break outerloop;
+                        }
                     }
                 }
             }
-            GUI.txtOutput.setText("Image boundaries formed");
+            status("Image boundaries formed");
         }
         else
         {
@@ -242,6 +473,80 @@ public final class ParseImage
         }
     }
     
+    /**
+     * Label every shape and hole in the image in one pass, then trace each of them from its seed pixel using the chosen tracing engine
+     * The largest shape becomes the main outline of the image
+     */
+    private void traceRegions()
+    {
+        ComponentLabeller labeller = new ComponentLabeller(mask, pool());
+        ArrayList<PixelRegion> regions = labeller.getRegions();
+        
+        ArrayList<PixelRegion> shapeRegions = new ArrayList<PixelRegion>();
+        for(PixelRegion r : regions)
+        {
+            if(r.isShape())
+            {
+                shapeRegions.add(r);
+            }
+        }
+        status("Found " + shapeRegions.size() + " shapes and " + (regions.size() - shapeRegions.size()) + " holes");
+        
+        //largest shapes first
+        Collections.sort(shapeRegions, new Comparator<PixelRegion>()
+        {
+            @Override
+            public int compare(PixelRegion r1, PixelRegion r2)
+            {
+                return Integer.compare(r2.getSize(), r1.getSize());
+            }
+        });
+        
+        TracedShape[] shapeOf = new TracedShape[regions.size()];
+        for(PixelRegion r : shapeRegions)
+        {
+            Contour outline = tracer.trace(mask, r.getSeedX(), r.getSeedY(), traced);
+            if(outline != null)
+            {
+                outline.translate(cropX, cropY);
+            }
+            else
+            {
+                status("Shape at (" + (r.getSeedX() + cropX) + ", " + (r.getSeedY() + cropY) + ") could not be traced");
+            }
+            shapeOf[r.getId()] = new TracedShape(outline, new ArrayList<Contour>());
+            shapes.add(shapeOf[r.getId()]);
+        }
+        
+        if(options.checkHoles())
+        {
+            for(PixelRegion r : regions)
+            {
+                //every hole was cut out of a shape, so its parent is always a shape
+                if(!r.isShape())
+                {
+                    Contour hole = tracer.trace(mask, r.getSeedX(), r.getSeedY(), traced);
+                    if(hole != null)
+                    {
+                        hole.translate(cropX, cropY);
+                        shapeOf[r.getParent()].getHoles().add(hole);
+                    }
+                    else
+                    {
+                        status("Hole at (" + (r.getSeedX() + cropX) + ", " + (r.getSeedY() + cropY) + ") could not be traced");
+                    }
+                }
+            }
+        }
+        
+        if(!shapes.isEmpty())
+        {
+            points = shapes.get(0).getPoints();
+            holes = shapes.get(0).getHoles();
+        }
+        status("Image boundaries formed");
+    }
+    
     /**
      * Traverse over the boundaries of the shape the image contains, pixel by pixel
      * 
@@ -255,18 +560,12 @@ public final class ParseImage
         Pixel next = start;
         Pixel old = new Pixel(-1, -1);
         
-        //if this is not a check for holes in the image
-        if(!doHoles)            
-        {
-            points.add(start.toVec2());
-            GUI.txtOutput.setText("Beginning at point (" + points.get(points.size() - 1).x + ", " + points.get(points.size() - 1).y + ") parsed");
-        }
-        else                    
-        {
-            //else if it is a check for holes in the image
-            holePoints.add(start.toVec2());
-            GUI.txtOutput.setText("Beginning at point (" + holePoints.get(holePoints.size() - 1).x + ", " + holePoints.get(holePoints.size() - 1).y + ") parsed");
-        }
+        tracing.set(start.x - cropX, start.y - cropY);
+        
+        //the pixel by pixel trace always builds whole pixel contours
+        IntContour loop = doHoles ? holePoints : (IntContour)points;
+        loop.add(start.x, start.y);
+        status("Beginning at point (" + start.x + ", " + start.y + ") parsed");
         
         //TODO: change to while loop maybe. this method limits the size of the image but does provide an easy escape whereas the while loop wouldn't
         for(int i = 0; i < 10000000; i++)                       
@@ -282,37 +581,31 @@ public final class ParseImage
             {
                 break;
             }
-                
-            //if this is an image boundary loop
-            if(!doHoles)                                        
+            
+            //if, at this point, a duplicate point is being added, then the program runs the risk of running infinite loops on a never ending circuit.
+            if(tracing.get(next.x - cropX, next.y - cropY))              
             {
-                //if, at this point, a duplicate point is being added, then the program runs the risk of running infinite loops on a never ending circuit.
-                if(points.contains(next.toVec2()))              
-                {
-                    System.out.println("ALREADY GOT THIS POINT");
-                    GUI.txtOutput.setText("Point (" + next.toVec2().x + ", " + next.toVec2().y + ") already part of array. Exiting method to avoid risk of looping");
-                    //empty the points found thus far so that an exception is thrown
-                    points = null;     
-                    //this has broken the boundary traversal. Break out of the for loop
-                    break;                                      
-                }
-                points.add(next.toVec2());
-                GUI.txtOutput.setText("Point (" + points.get(points.size() - 1).x + ", " + points.get(points.size() - 1).y + ") parsed");
-                System.out.println("POINTS " + points.get(points.size() - 1).x + " " + points.get(points.size() - 1).y);
+                status("Point (" + next.x + ", " + next.y + ") already part of array. Exiting method to avoid risk of looping");
+                //empty the points found thus far so that an exception is thrown
+                points = null;     
+                //this has broken the boundary traversal. Break out of the for loop
+                break;                                      
             }
-            else                                                
+            loop.add(next.x, next.y);
+            tracing.set(next.x - cropX, next.y - cropY);
+            if(progress.isDue())
             {
-                //if this is an image hole boundary loop
-                if(holePoints.contains(next.toVec2()))
-                {
-                    System.out.println("ALREADY GOT THIS POINT");
-                    GUI.txtOutput.setText("Point (" + next.toVec2().x + ", " + next.toVec2().y + ") already part of array. Exiting method to avoid risk of looping");
-                    points = null;
-                    break;
-                }
-                holePoints.add(next.toVec2());
-                GUI.txtOutput.setText("Point (" + holePoints.get(holePoints.size() - 1).x + ", " + holePoints.get(holePoints.size() - 1).y + ") parsed");
-                System.out.println("HOLE POINTS " + holePoints.get(holePoints.size() - 1).x + " " + holePoints.get(holePoints.size() - 1).y);
+                progress.progress("Point (" + next.x + ", " + next.y + ") parsed");
+            }
+        }
+        
+        //move the finished loop over to the traced pixels, ready for the next loop to be traversed
+        if(doHoles || points != null)
+        {
+            for(int i = 0; i < loop.size(); i++)
+            {
+                tracing.clear(loop.getIntX(i) - cropX, loop.getIntY(i) - cropY);
+                traced.set(loop.getIntX(i) - cropX, loop.getIntY(i) - cropY);
             }
         }
     }
@@ -345,95 +638,115 @@ public final class ParseImage
     }
 
     /**
-     * Take the list of points found and average them for a more refined list of points
+     * Get the square root of a value
      * 
-     * @param vertices Vertices we found in the image so far
-     * @return Average vertex of the vertices
+     * @param f1 Value we wish to square
+     * @return Squared value
      */
-    private Vec2 average(ArrayList<Vec2> vertices)
+    private float sq(float f1)
     {
-        Vec2 average = new Vec2(0, 0);
-        for(Vec2 v : vertices)
-        {
-            average = average.add(v);
-        }
-        average.set(average.x/vertices.size(), average.y/vertices.size());
-        return average;
+	return f1 * f1;
     }
     
+    //TODO: I think this is what cuts out corners from accidently reoccuring, by getting midpoints. Maybe try see what happens with this removed at some point
     /**
-     * Calculate the midpoint of two points
+     * "Curves" images by getting an averaged midpoint from 3 vertices
      * 
-     * @param v1 First vertex
-     * @param v2 Second vertex
-     * @return Mid point between the two given vertices
+     * @param line Contour holding the vertices
+     * @param i Index of the first of the three vertices, the other two following straight after it
+     * @return Gets a midway value between the three vertices to help create some curvature at corners
      */
-    private Vec2 midPoint(Vec2 v1, Vec2 v2)
+    private float curvature(Contour line, int i)
     {
-	return new Vec2((v1.x + v2.x)/2, (v1.y + v2.y)/2);
+        float midX = (line.getX(i) + line.getX(i + 2))/2;
+        float midY = (line.getY(i) + line.getY(i + 2))/2;
+        return sq(midX - line.getX(i + 1)) + sq(midY - line.getY(i + 1));
     }
     
     /**
-     * Get the square root of a value
+     * Count the pixels without an alpha value in the 3x3 block around a point
      * 
-     * @param f1 Value we wish to square
-     * @return Squared value
+     * @param line Contour holding the point
+     * @param i Index of the point
+     * @return Number of empty pixels around and including the point
      */
-    private float sq(float f1)
+    private int emptyAround(Contour line, int i)
     {
-	return f1 * f1;
+        int x = (int)line.getX(i);
+        int y = (int)line.getY(i);
+        return (pointHasAlpha(x, y) ? 0 : 1) + 8 - Integer.bitCount(neighbourCode(x, y));
     }
     
-    //TODO: I think this is what cuts out corners from accidently reoccuring, by getting midpoints. Maybe try see what happens with this removed at some point
     /**
-     * "Curves" images by getting an averaged midpoint from 3 vertices
+     * Menu for accessing the different simplification algorithms depending on input
      * 
-     * @param v1 First vertex
-     * @param v2 Second vertex
-     * @param v3 Third vertex
-     * @return Gets a midway value between the three vertices to help create some curvature at corners
+     * @param points Vertices we will be passing into the simplifier algorithms
+     * @return New set of simplified vertices
      */
-    private float curvature(Vec2 v1, Vec2 v2, Vec2 v3)
+    public Contour simplifyMenu(Contour points)
     {
-        Vec2 midPoint = midPoint(v1, v3);
-        return sq(midPoint.x - v2.x) + sq(midPoint.y - v2.y);
+        return simplifyMenu(points, options.getSimplifier(), options.getSimplifierConfig());
     }
     
     /**
-     * Menu for accessing the different simplification algorithms depending on input
+     * Simplify a set of points with a given simplifier and parameters, regardless of those chosen in the parser's settings
      * 
-     * @param points Vertices we will be passing into the simplifier algorithms
+     * @param points Vertices we will be passing into the simplifier
+     * @param simplifier Simplification algorithm to apply
+     * @param config Parameters handed to the simplifier
      * @return New set of simplified vertices
      */
-    public ArrayList<Vec2> simplifyMenu(ArrayList<Vec2> points)
+    public Contour simplifyMenu(Contour points, ContourSimplifier simplifier, SimplifierConfig config)
     {
-        ArrayList<Vec2> returns;
-        if(GUI.selectedSimplifier == GUI.RAMER_SIMPLIFIER)
+        if(mask == null && simplifier.readsImage())
         {
-            returns = simplifyDouglas(points);
-            GUI.txtOutput.setText("Points simplified with Ramer-Peucker-Douglas Algorithm");
+            //these look at the image around each point, which a streamed parse doesn't keep
+            simplifier = SimplifierRegistry.get(ParseOptions.RAMER_SIMPLIFIER);
         }
-        else if(GUI.selectedSimplifier == GUI.CIRCLE_SIMPLIFIER)
-        {
-            returns = simplifyCircle(points);
-            GUI.txtOutput.setText("Points simplified with personal circle-based algorithm");
-        }
-        else if(GUI.selectedSimplifier == GUI.FLEXIBLE_SIMPLIFIER)
-        {
-            returns = simplifyBoth5(points);
-            GUI.txtOutput.setText("Points simplified with personal general-purpose algorithm");
-        }
-        else if(GUI.selectedSimplifier == GUI.ORIG_SIMPLIFIER)
-        {
-            returns = simplifyold(points);
-            GUI.txtOutput.setText("Points simplified with original personal algorithm");
-        }
-        else
+        Contour returns = simplifier.simplify(points, config, this);
+        status(simplifier.getStatus());
+        progress.flush();
+        return returns;
+    }
+    
+    /**
+     * Determine if the simplifier chosen in the parser's settings has to be handed every loop of a shape at once
+     * 
+     * @return determines if the outline and holes are simplified together
+     */
+    public boolean simplifiesWholeShapes()
+    {
+        ContourSimplifier simplifier = options.getSimplifier();
+        return simplifier instanceof ShapeSimplifier && !(mask == null && simplifier.readsImage());
+    }
+    
+    /**
+     * Simplify the outline of a shape along with its holes using the simplifier chosen in the parser's settings
+     * Simplifiers that need to see every loop at once are handed them together, any other simplifies each loop on its own
+     * 
+     * @param outline Vertices of the shape's outline
+     * @param holes Vertices of each of the shape's holes
+     * @return Simplified outline followed by the simplified holes, in the same order
+     */
+    public ArrayList<Contour> simplifyShape(Contour outline, ArrayList<Contour> holes)
+    {
+        ContourSimplifier simplifier = options.getSimplifier();
+        ArrayList<Contour> loops = new ArrayList<Contour>(holes.size() + 1);
+        loops.add(outline);
+        loops.addAll(holes);
+        if(!simplifiesWholeShapes())
         {
-            returns = points;
-            GUI.txtOutput.setText("Points not simplified");
+            ArrayList<Contour> simplified = new ArrayList<Contour>(loops.size());
+            for(Contour loop : loops)
+            {
+                simplified.add(simplifyMenu(loop));
+            }
+            return simplified;
         }
-        return returns;
+        ArrayList<Contour> simplified = ((ShapeSimplifier)simplifier).simplifyShape(loops, options.getSimplifierConfig(), this);
+        status(simplifier.getStatus());
+        progress.flush();
+        return simplified;
     }
     
     /**
@@ -442,28 +755,17 @@ public final class ParseImage
      * @param points Original set of points that we wish to simplify
      * @return Simplified set of points
      */
-    public ArrayList<Vec2> simplify(ArrayList<Vec2> points)
+    public FloatContour simplify(Contour points)
     {
-        ArrayList<Vec2> smoothedLine = new ArrayList<>();
+        FloatContour smoothedLine = new FloatContour(points.size());
         
-        smoothedLine.add(points.get(0));
+        smoothedLine.add(points, 0);
                 
         for(int i = 0; i < points.size(); i++)
         {
-            int alphaPix = 0;
-            for(int j = -1; j < 2; j++)
+            if(emptyAround(points, i) > 1)
             {
-                for(int k = -1; k < 2; k++)
-                {
-                    if(!pointHasAlpha((int)points.get(i).x + j, (int)points.get(i).y + k))
-                    {
-                        alphaPix++;
-                    }
-                }
-            }
-            if(alphaPix > 1)
-            {
-                smoothedLine.add(points.get(i));
+                smoothedLine.add(points, i);
             }
         }
         
@@ -474,12 +776,13 @@ public final class ParseImage
      * Simplify a set of points using the circle algorithm
      * 
      * @param points Original set of points that we wish to simplify
+     * @param config Parameters of the simplification
      * @return Simplified set of points
      */
-    public ArrayList<Vec2> simplifyCircle(ArrayList<Vec2> points)
+    public FloatContour simplifyCircle(Contour points, SimplifierConfig config)
     {      
-        ArrayList<Vec2> smoothedLine = simplify(points);
-        ArrayList<Vec2> simplifiedLine = new ArrayList<Vec2>();
+        FloatContour smoothedLine = simplify(points);
+        FloatContour simplifiedLine = new FloatContour();
         
         float curvatureTotal = 0;
         float curvature = 0;
@@ -487,14 +790,14 @@ public final class ParseImage
         //this default seems good for circles
         for(int i = 0; i < smoothedLine.size() - 3; i++)
         {
-            curvature = curvature(smoothedLine.get(i), smoothedLine.get(i + 1), smoothedLine.get(i + 2));
+            curvature = curvature(smoothedLine, i);
             
             curvatureTotal += curvature;
             
-            if(curvatureTotal > GUI.limit)
+            if(curvatureTotal > config.getLimit())
             {
                 curvatureTotal = 0;
-                simplifiedLine.add(smoothedLine.get(i));
+                simplifiedLine.add(smoothedLine, i);
             }
         }
         return simplifiedLine;
@@ -504,12 +807,13 @@ public final class ParseImage
      * Simplify a set of points into more squarish shapes
      * 
      * @param points Original set of points that we wish to simplify
+     * @param config Parameters of the simplification
      * @return Simplified set of points
      */
-    public ArrayList<Vec2> simplifySquare(ArrayList<Vec2> points)
+    public FloatContour simplifySquare(Contour points, SimplifierConfig config)
     {
-        ArrayList<Vec2> smoothedLine = simplify(points);
-        ArrayList<Vec2> simplifiedLine = new ArrayList<>();
+        FloatContour smoothedLine = simplify(points);
+        FloatContour simplifiedLine = new FloatContour();
         
         float curvatureTotal = 0;
         float curvature = 0;
@@ -517,17 +821,17 @@ public final class ParseImage
         //this seems good for limbs and such
         for(int i = 0; i < smoothedLine.size() - 3; i++)
         {
-            curvature = curvature(smoothedLine.get(i), smoothedLine.get(i + 1), smoothedLine.get(i + 2));
+            curvature = curvature(smoothedLine, i);
             
             curvatureTotal += curvature;
-            if(curvatureTotal > GUI.limit)
+            if(curvatureTotal > config.getLimit())
             {
                 curvatureTotal = 0;
-                simplifiedLine.add(smoothedLine.get(i));
+                simplifiedLine.add(smoothedLine, i);
             }
-            else if((smoothedLine.get(i).x == smoothedLine.get(i + 1).x && smoothedLine.get(i).x == smoothedLine.get(i + 2).x) || (smoothedLine.get(i).y == smoothedLine.get(i + 1).y && smoothedLine.get(i).y == smoothedLine.get(i + 2).y))
+            else if((smoothedLine.getX(i) == smoothedLine.getX(i + 1) && smoothedLine.getX(i) == smoothedLine.getX(i + 2)) || (smoothedLine.getY(i) == smoothedLine.getY(i + 1) && smoothedLine.getY(i) == smoothedLine.getY(i + 2)))
             {
-                simplifiedLine.add(smoothedLine.get(i));
+                simplifiedLine.add(smoothedLine, i);
                 i+=2;
             }
         }
@@ -540,53 +844,28 @@ public final class ParseImage
      * @param points Original set of points that we wish to simplify
      * @return Simplified set of points
      */
-    public ArrayList<Vec2> simplifyCorners(ArrayList<Vec2> points)
+    public FloatContour simplifyCorners(Contour points)
     {
-        ArrayList<Vec2> smoothedLine = new ArrayList<>();
+        FloatContour smoothedLine = new FloatContour(points.size());
         
-        smoothedLine.add(points.get(0));
+        smoothedLine.add(points, 0);
                 
         for(int i = 0; i < points.size(); i++)
         {
-            int alphaPix = 0;            
-            for(int j = -1; j < 2; j++)
-            {
-                for(int k = -1; k < 2; k++)
-                {
-                    if(!pointHasAlpha((int)points.get(i).x + j, (int)points.get(i).y + k))
-                    {
-                        alphaPix++;
-                    }
-                }
-            }
+            int alphaPix = emptyAround(points, i);
 
             if(alphaPix > 1)
             {
-                smoothedLine.add(points.get(i));
+                smoothedLine.add(points, i);
             }
             else if(alphaPix == 1)
             {
-                boolean corner = false;
-                if(!pointHasAlpha((int)points.get(i).x - 1, (int)points.get(i).y - 1))
-                {
-                    corner = true;
-                }
-                if(!pointHasAlpha((int)points.get(i).x + 1, (int)points.get(i).y - 1))
-                {
-                    corner = true;
-                }
-                if(!pointHasAlpha((int)points.get(i).x - 1, (int)points.get(i).y + 1))
-                {
-                    corner = true;
-                }
-                if(!pointHasAlpha((int)points.get(i).x + 1, (int)points.get(i).y + 1))
-                {
-                    corner = true;
-                }
+                //the one empty pixel is on a diagonal
+                boolean corner = (neighbourCode((int)points.getX(i), (int)points.getY(i)) & NeighbourPlane.DIAGONALS) != NeighbourPlane.DIAGONALS;
                 
                 if(!corner)
                 {
-                    smoothedLine.add(points.get(i));
+                    smoothedLine.add(points, i);
                 }
             }
         }
@@ -600,10 +879,10 @@ public final class ParseImage
      * @param points Original set of points that we wish to simplify
      * @return Simplified set of points
      */
-    public ArrayList<Vec2> simplifyBoth5(ArrayList<Vec2> points)
+    public FloatContour simplifyBoth5(Contour points)
     {
-        ArrayList<Vec2> smoothedLine = simplifyCorners(points);
-        ArrayList<Vec2> simplifiedLine = new ArrayList<>();
+        FloatContour smoothedLine = simplifyCorners(points);
+        FloatContour simplifiedLine = new FloatContour();
 
         boolean curving = false;
         
@@ -634,64 +913,31 @@ public final class ParseImage
             }
             
             //get alpha surroundings
-            int alphaPix = 0;
-            for(int j = -1; j < 2; j++)
-            {
-                for(int k = -1; k < 2; k++)
-                {
-                    if(!pointHasAlpha((int)smoothedLine.get(i).x + j, (int)smoothedLine.get(i).y + k))
-                    {
-                        alphaPix++;
-                    }
-                }
-            }
-            
-            int alphaPix1 = 0;
-            for(int j = -1; j < 2; j++)
-            {
-                for(int k = -1; k < 2; k++)
-                {
-                    if(!pointHasAlpha((int)smoothedLine.get(last).x + j, (int)smoothedLine.get(last).y + k))
-                    {
-                        alphaPix1++;
-                    }
-                }
-            }
-            int alphaPix2 = 0;
-            for(int j = -1; j < 2; j++)
-            {
-                for(int k = -1; k < 2; k++)
-                {
-                    if(!pointHasAlpha((int)smoothedLine.get(next).x + j, (int)smoothedLine.get(next).y + k))
-                    {
-                        alphaPix2++;
-                    }
-                }
-            }
-            
-            System.out.println("ALPHA " + alphaPix + " AT " + smoothedLine.get(i).x + " " + smoothedLine.get(i).y);
+            int alphaPix = emptyAround(smoothedLine, i);
+            int alphaPix1 = emptyAround(smoothedLine, last);
+            int alphaPix2 = emptyAround(smoothedLine, next);
                         
             //check for straights and corners
-             boolean alphaAbove = (!pointHasAlpha((int)smoothedLine.get(last).x, (int)smoothedLine.get(last).y) && (smoothedLine.get(i).x == smoothedLine.get(last).x && smoothedLine.get(i).y != smoothedLine.get(last).y));
+             boolean alphaAbove = (!pointHasAlpha((int)smoothedLine.getX(last), (int)smoothedLine.getY(last)) && (smoothedLine.getX(i) == smoothedLine.getX(last) && smoothedLine.getY(i) != smoothedLine.getY(last)));
             if(alphaPix == 1)
             {
-                simplifiedLine.add(smoothedLine.get(i));
+                simplifiedLine.add(smoothedLine, i);
             }
             else if((alphaPix == 2 && alphaPix1 == 4 && alphaPix2 == 2) || (alphaPix == 2 && alphaPix1 == 2 && alphaPix2 == 3) || (alphaPix == 2 && alphaPix1 == 3 && alphaPix2 == 3 && !alphaAbove))
             {
-                simplifiedLine.add(smoothedLine.get(i));
+                simplifiedLine.add(smoothedLine, i);
             }
             else if((alphaPix == 3 && alphaPix1 == 2 && alphaPix2 == 2) || (alphaPix == 3 && alphaPix1 == 1))
             {
-                simplifiedLine.add(smoothedLine.get(i));
+                simplifiedLine.add(smoothedLine, i);
             }
             else if(alphaPix == 4)
             {
-                simplifiedLine.add(smoothedLine.get(i));
+                simplifiedLine.add(smoothedLine, i);
             }
             else if(alphaPix == 5)
             {
-                simplifiedLine.add(smoothedLine.get(i));
+                simplifiedLine.add(smoothedLine, i);
             }
             
             //set curves
@@ -701,7 +947,7 @@ public final class ParseImage
             {
                 if(alphaPix == 4 || (alphaPix == 3 && alphaPix1 == 1 && alphaPix2 == 1) || (alphaPix == 2 && alphaPix1 == 2) || (alphaPix != 3 && alphaPix1 == 1 && alphaPix2 == 1))
                 {
-                    simplifiedLine.add(smoothedLine.get(i));
+                    simplifiedLine.add(smoothedLine, i);
                 }
             }
         }
@@ -711,101 +957,46 @@ public final class ParseImage
 
     /**
      * Use the Ramer-Douglas-Peucker algorithm to simplify lines
-     * Loop through the vector points and mark them accordingly as points that should be kept or removed for the new simplified image
+     * The loop is split between its two points furthest apart and each side is reduced separately, so no point is kept just for being first
      * 
      * @param points Original list of points that we wish to simplify
      * @return Simplified list of points
      */
-    public ArrayList<Vec2> simplifyDouglas(ArrayList<Vec2> points)
+    public Contour simplifyDouglas(Contour points)
     {
-        int size = points.size();
-        
-        if(GUI.limit <= 0 || size < 3)
-        {
-            return points;
-        }
-        boolean[] marked = new boolean[size];
-        for(int i = 1; i < size; i++)
-        {
-            marked[i] = false;
-        }
-        //typically the algorithm would want the first and last points of a line to remain unchanged
-        //but in this case, the last point is a point in a loop (that forms a complete object) that shouldn't be kept
-        marked[0] = true;                                       
-
-        douglasReduction(points, marked, GUI.limit, 0, size);
-        
-        ArrayList<Vec2> newPoints = new ArrayList<>(size);
-        for(int i = 0; i < size; i++)
-        {
-            if(marked[i])
-            {
-                newPoints.add(points.get(i));
-            }
-        }
-        return newPoints;
+        return simplifyDouglas(points, false);
     }
     
     /**
-     * Use the tolerance limiter to determine which points to keep or remove
-     * Checks whether a point exceeds the distance limit between points.
-     * If it does, it is too "sharp" to remove
+     * Use the Ramer-Douglas-Peucker algorithm to simplify lines, choosing how the furthest point from each line is found
      * 
-     * @param points Points we are trying to simplify
-     * @param marked Determines which points are marked for alteration and which are not
-     * @param tolerance limit to point deviation which will limit extreme outliers from getting altered
-     * @param first first point in the list we are checking
-     * @param last last point in the list we are checking
+     * @param points Original list of points that we wish to simplify
+     * @param hullSearch Determines if the furthest point is found through a tree of convex hulls, which stays fast on long staircase outlines
+     * @return Simplified list of points
      */
-    private static void douglasReduction(ArrayList<Vec2> points, boolean[] marked, double tolerance, int first, int last)
+    public Contour simplifyDouglas(Contour points, boolean hullSearch)
     {
-        //ensure the set of points are valid
-        if (last <= first + 1)  
-        {
-            return;
-        }
-
-        double maxDistance = 0.0;
-        int farthestPoint = 0;
-
-        Vec2 firstPoint = points.get(first);
-        Vec2 lastPoint = points.get(last - 1);
-
-        for (int i = first + 1; i < last; i++)
-        {
-            Vec2 point = points.get(i);
-            double distance = orthogonalDistance(point, firstPoint, lastPoint);
-            if (distance > maxDistance)
-            {
-                maxDistance = distance;
-                farthestPoint = i;
-            }
-        }
-
-        //distance too great so keep this point, but calculate possible removals for similar points
-        if (maxDistance > tolerance)        
-        {
-            marked[farthestPoint] = true;
-            douglasReduction(points, marked, tolerance, first, farthestPoint);
-            douglasReduction(points, marked, tolerance, farthestPoint, last);
-        }
+        return BuiltInSimplifiers.douglas(points, options.getSimplifierConfig(), hullSearch);
     }
 
     /**
      * Get the distance of a point on the line
      * 
-     * @param point Point we are checking
-     * @param start Start of the line
-     * @param end End of the line
+     * @param pointX coordinate of the point we are checking along X
+     * @param pointY coordinate of the point we are checking along Y
+     * @param startX coordinate of the start of the line along X
+     * @param startY coordinate of the start of the line along Y
+     * @param endX coordinate of the end of the line along X
+     * @param endY coordinate of the end of the line along Y
      * @return Distance of point along the line
      */
-    public static double orthogonalDistance(Vec2 point, Vec2 start, Vec2 end)
+    public static double orthogonalDistance(float pointX, float pointY, float startX, float startY, float endX, float endY)
     {
-        double area = Math.abs((1.0 * start.y * end.x + 1.0 * end.y * point.x
-        + 1.0 * point.y * start.x - 1.0 * end.y * start.x - 1.0 * point.y * end.x
-        - 1.0 * start.y * point.x)/2.0);
+        double area = Math.abs((1.0 * startY * endX + 1.0 * endY * pointX
+        + 1.0 * pointY * startX - 1.0 * endY * startX - 1.0 * pointY * endX
+        - 1.0 * startY * pointX)/2.0);
 
-        double bottom = Math.hypot(start.y - end.y, start.x - end.x);
+        double bottom = Math.hypot(startY - endY, startX - endX);
 
         return (area/bottom * 2.0);
     }
@@ -814,27 +1005,28 @@ public final class ParseImage
      * Original simplification algorithm
      * 
      * @param points Original list of points that we wish to simplify
+     * @param config Parameters of the simplification
      * @return Simplified list of points
      */
-    public ArrayList<Vec2> simplifyold (ArrayList<Vec2> points)
+    public FloatContour simplifyold (Contour points, SimplifierConfig config)
     {
-        ArrayList<Vec2> smoothedLine = new ArrayList<> ();
-        ArrayList<Vec2> simplifiedLine = new ArrayList<> ();
+        FloatContour smoothedLine = new FloatContour();
+        FloatContour simplifiedLine = new FloatContour();
 
         // Add the first point
-        smoothedLine.add(this.points.get(0));
-
-        ArrayList<Vec2> averageVertices = new ArrayList<Vec2>();
+        smoothedLine.add(points, 0);
 
         // Loop over the next [average] vertices and add the result to the array of smoothed points
-        for(int i = 0; i < (this.points.size() - GUI.average); i++)
+        for(int i = 0; i < (points.size() - config.getAverage()); i++)
         {
-            averageVertices.clear();
-            for(int j = 0; j < GUI.average; j++)
+            float averageX = 0;
+            float averageY = 0;
+            for(int j = 0; j < config.getAverage(); j++)
             {
-                averageVertices.add(this.points.get(i + j));
+                averageX += points.getX(i + j);
+                averageY += points.getY(i + j);
             }
-            smoothedLine.add(average(averageVertices));
+            smoothedLine.add(averageX/config.getAverage(), averageY/config.getAverage());
         }
 
         float curvatureTotal = 0;
@@ -843,17 +1035,17 @@ public final class ParseImage
         for(int i=0; i<smoothedLine.size()-3; i++)
         {
             // Calculate the curvature
-            curvature = curvature(smoothedLine.get(i), smoothedLine.get(i+1), smoothedLine.get(i+2));
+            curvature = curvature(smoothedLine, i);
 
             // Use a curvature accumulator to prevent cases where a line curves gradually
             //this would be picked up if we just used the curvature because each individual curvature may be less than our limit
             curvatureTotal += curvature;
 
             // If the total curvature is greater than our set limit then add the point to our simplified line
-            if(curvatureTotal > GUI.limit)
+            if(curvatureTotal > config.getLimit())
             {
                 curvatureTotal = 0;
-                simplifiedLine.add(smoothedLine.get(i));
+                simplifiedLine.add(smoothedLine, i);
             }
         }
         return simplifiedLine;
@@ -862,237 +1054,97 @@ public final class ParseImage
     /**
      * Parses through the original list of points extracted from an image and repositions them to determine a pixel-perfect trace
      * 
-     * @param points Original list of points found in the image
+     * @param points Original list of points found in the image, on whole pixel coordinates
      * @return Pixel-perfect list of points in the image
      */
-    public ArrayList<Vec2> perfectPoints(ArrayList<Vec2> points)
+    public IntContour perfectPoints(Contour points)
+    {
+        return perfectCorners(points);
+    }
+    
+    /**
+     * Takes the original point list of any hole in the image and determines a pixel-perfect trace for it
+     * Holes are repositioned in the same way as shapes, each point moved onto the pixel corner picked out by the pixels around it
+     * 
+     * @param points Original list of points taken from the image, on whole pixel coordinates
+     * @return Pixel-perfect list of points in the hole
+     */
+    public IntContour perfectHoles(Contour points)
     {
-        ArrayList<Vec2> returns = points;
+        return perfectCorners(points);
+    }
+    
+    /**
+     * Moves each point onto the corner of its pixel picked out by the pixels around it, shared by shapes and holes
+     * 
+     * @param points Original list of points, on whole pixel coordinates
+     * @return Pixel-perfect list of points
+     */
+    private IntContour perfectCorners(Contour points)
+    {
+        IntContour returns = new IntContour(points.size());
         
         for(int i = 0; i < points.size(); i++)
         {
-            boolean alphaTop = false;
-            boolean alphaRight = false;
-            boolean alphaBottomRight = false;
-            boolean alphaTopRight = false;
-            boolean alphaTopLeft = false;
-            
-            if(!pointHasAlpha((int)points.get(i).x + 0, (int)points.get(i).y + 1))
-            {
-                alphaTop = true;
-            }
-            if(!pointHasAlpha((int)points.get(i).x + 1, (int)points.get(i).y + 0))
-            {
-                alphaRight = true;
-            }
-            if(!pointHasAlpha((int)points.get(i).x + 1, (int)points.get(i).y - 1))
-            {
-                int alphaPix = 0;
-                for(int j = -1; j < 2; j++)
-                {
-                    for(int k = -1; k < 2; k++)
-                    {
-                        if(!pointHasAlpha((int)points.get(i).x + j, (int)points.get(i).y + k))
-                        {
-                            alphaPix++;
-                        }
-                    }
-                }
-                if(alphaPix == 1)
-                {
-                    alphaBottomRight = true;
-                }
-            }
-            if(!pointHasAlpha((int)points.get(i).x + 1, (int)points.get(i).y + 1))
+            int x = (int)points.getX(i);
+            int y = (int)points.getY(i);
+            if(progress.isDue())
             {
-                int alphaPix = 0;
-                for(int j = -1; j < 2; j++)
-                {
-                    for(int k = -1; k < 2; k++)
-                    {
-                        if(!pointHasAlpha((int)points.get(i).x + j, (int)points.get(i).y + k))
-                        {
-                            alphaPix++;
-                        }
-                    }
-                }
-                if(alphaPix == 1)
-                {
-                    alphaTopRight = true;
-                }
-            }
-            if(!pointHasAlpha((int)points.get(i).x - 1, (int)points.get(i).y + 1))
-            {
-                int alphaPix = 0;
-                for(int j = -1; j < 2; j++)
-                {
-                    for(int k = -1; k < 2; k++)
-                    {
-                        if(!pointHasAlpha((int)points.get(i).x + j, (int)points.get(i).y + k))
-                        {
-                            alphaPix++;
-                        }
-                    }
-                }
-                if(alphaPix == 1)
-                {
-                    alphaTopLeft = true;
-                }
-            }
-            
-            if(alphaTop == true && alphaRight == true)
-            {
-                GUI.txtOutput.setText("Repositioning point " + returns.get(i));
-                returns.set(i, new Vec2(points.get(i).x + 1, points.get(i).y + 1));
-            }
-            else if(alphaBottomRight == true)
-            {
-                GUI.txtOutput.setText("Repositioning point " + returns.get(i));
-                returns.set(i, new Vec2(points.get(i).x + 1, points.get(i).y));
-            }
-            else if(alphaTopRight == true)
-            {
-                GUI.txtOutput.setText("Repositioning point " + returns.get(i));
-                returns.set(i, new Vec2(points.get(i).x + 1, points.get(i).y + 1));
-            }
-            else if(alphaTopLeft == true)
-            {
-                GUI.txtOutput.setText("Repositioning point " + returns.get(i));
-                returns.set(i, new Vec2(points.get(i).x, points.get(i).y + 1));
-            }
-            else
-            {
-                GUI.txtOutput.setText("Repositioning point " + returns.get(i));
-                if(alphaTop == true)
-                {
-                    returns.set(i, new Vec2(points.get(i).x, points.get(i).y + 1));
-                }
-                if(alphaRight == true)
-                {
-                    returns.set(i, new Vec2(points.get(i).x + 1, points.get(i).y));
-                }
+                progress.progress("Repositioning point (" + x + ", " + y + ")");
             }
+            int corner = CORNERS[neighbourCode(x, y)];
+            returns.add(x + (corner & 1), y + (corner >> 1));
         }
         return returns;
     }
     
     /**
-     * Takes the original point list of any hole in the image and determines pixel-perfect traces for them
-     * UNFINISHED METHOD. Doesn't work in all situations
+     * Work out the corner of a pixel that each arrangement of its neighbours moves a traced point onto
+     * Each entry holds the offset along X in bit 0 and along Y in bit 1.
+     * The centre pixel is taken to be set, as every point the pixel tracer finds is
      * 
-     * @param points Original list of points taken from the image
-     * @return Pixel-perfect list of points in the hole
+     * @return Corner offsets indexed by the 8-bit occupancy of the pixels around a point
      */
-    public ArrayList<Vec2> perfectHoles(ArrayList<Vec2> points)
+    private static byte[] buildCorners()
     {
-        //NOTE: SOMETHING WRONG IN HERE, GLITCHES OUT THE BOWLING BALL IMAGE
-        //Duplicates are being generated! They must be removed BEFORE simplifying!!
-        ArrayList<Vec2> returns = points;
-        
-        for(int i = 0; i < points.size(); i++)
+        byte[] corners = new byte[256];
+        for(int code = 0; code < 256; code++)
         {
-            boolean alphaTop = false;
-            boolean alphaRight = false;
-            boolean alphaBottomRight = false;
-            boolean alphaTopRight = false;
-            boolean alphaTopLeft = false;
+            //centre pixel is set, so the empty pixels are only ever the neighbours
+            int alphaPix = 8 - Integer.bitCount(code);
+            boolean alphaTop = (code & NeighbourPlane.TOP) == 0;
+            boolean alphaRight = (code & NeighbourPlane.RIGHT) == 0;
+            boolean alphaBottomRight = (code & NeighbourPlane.BOTTOM_RIGHT) == 0 && alphaPix == 1;
+            boolean alphaTopRight = (code & NeighbourPlane.TOP_RIGHT) == 0 && alphaPix == 1;
+            boolean alphaTopLeft = (code & NeighbourPlane.TOP_LEFT) == 0 && alphaPix == 1;
             
-            if(!pointHasAlpha((int)points.get(i).x + 0, (int)points.get(i).y + 1))
+            int corner;
+            if(alphaTop && alphaRight)
             {
-                alphaTop = true;
+                corner = 3;
             }
-            if(!pointHasAlpha((int)points.get(i).x + 1, (int)points.get(i).y + 0))
+            else if(alphaBottomRight)
             {
-                alphaRight = true;
+                corner = 1;
             }
-            if(!pointHasAlpha((int)points.get(i).x + 1, (int)points.get(i).y - 1))
+            else if(alphaTopRight)
             {
-                int alphaPix = 0;
-                for(int j = -1; j < 2; j++)
-                {
-                    for(int k = -1; k < 2; k++)
-                    {
-                        if(!pointHasAlpha((int)points.get(i).x + j, (int)points.get(i).y + k))
-                        {
-                            alphaPix++;
-                        }
-                    }
-                }
-                if(alphaPix == 1)
-                {
-                    alphaBottomRight = true;
-                }
+                corner = 3;
             }
-            if(!pointHasAlpha((int)points.get(i).x + 1, (int)points.get(i).y + 1))
+            else if(alphaTopLeft || alphaTop)
             {
-                int alphaPix = 0;
-                for(int j = -1; j < 2; j++)
-                {
-                    for(int k = -1; k < 2; k++)
-                    {
-                        if(!pointHasAlpha((int)points.get(i).x + j, (int)points.get(i).y + k))
-                        {
-                            alphaPix++;
-                        }
-                    }
-                }
-                if(alphaPix == 1)
-                {
-                    alphaTopRight = true;
-                }
-            }
-            if(!pointHasAlpha((int)points.get(i).x - 1, (int)points.get(i).y + 1))
-            {
-                int alphaPix = 0;
-                for(int j = -1; j < 2; j++)
-                {
-                    for(int k = -1; k < 2; k++)
-                    {
-                        if(!pointHasAlpha((int)points.get(i).x + j, (int)points.get(i).y + k))
-                        {
-                            alphaPix++;
-                        }
-                    }
-                }
-                if(alphaPix == 1)
-                {
-                    alphaTopLeft = true;
-                }
-            }
-            
-            if(alphaTop == true && alphaRight == true)
-            {
-                GUI.txtOutput.setText("Repositioning point " + returns.get(i));
-                returns.set(i, new Vec2(points.get(i).x + 1, points.get(i).y + 1));
+                corner = 2;
             }
-            else if(alphaBottomRight == true)
+            else if(alphaRight)
             {
-                GUI.txtOutput.setText("Repositioning point " + returns.get(i));
-                returns.set(i, new Vec2(points.get(i).x + 1, points.get(i).y));
-            }
-            else if(alphaTopRight == true)
-            {
-                GUI.txtOutput.setText("Repositioning point " + returns.get(i));
-                returns.set(i, new Vec2(points.get(i).x + 1, points.get(i).y + 1));
-            }
-            else if(alphaTopLeft == true)
-            {
-                GUI.txtOutput.setText("Repositioning point " + returns.get(i));
-                returns.set(i, new Vec2(points.get(i).x, points.get(i).y + 1));
+                corner = 1;
             }
             else
             {
-                GUI.txtOutput.setText("Repositioning point " + returns.get(i));
-                if(alphaTop == true)
-                {
-                    returns.set(i, new Vec2(points.get(i).x, points.get(i).y + 1));
-                }
-                if(alphaRight == true)
-                {
-                    returns.set(i, new Vec2(points.get(i).x + 1, points.get(i).y));
-                }
+                corner = 0;
             }
+            corners[code] = (byte)corner;
         }
-        return returns;
+        return corners;
     }
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+package com.base.engine.imageparsing;
+
+import com.base.engine.ProgressListener;
+
+/**
+ * Settings used to parse an image, fixed at creation so a single set of options can be shared between parsers on any number of threads
+ *
+ * @author Jordan
+ */
+public final class ParseOptions
+{
+    //built-in simplifiers by number, kept for callers from before SimplifierRegistry
+    public static final int RAMER_SIMPLIFIER = 0;
+    public static final int CIRCLE_SIMPLIFIER = 1;
+    public static final int FLEXIBLE_SIMPLIFIER = 2;
+    public static final int ORIG_SIMPLIFIER = 3;
+    public static final int NO_SIMPLIFIER = 4;
+    public static final int VISVALINGAM_SIMPLIFIER = 5;
+    public static final int RAMER_HULL_SIMPLIFIER = 6;
+
+    //by default any pixel that isn't fully transparent is part of a shape
+    public static final int DEFAULT_ALPHA_THRESHOLD = 0;
+
+    private final boolean checkHoles;
+    private final int alphaThreshold;
+    private final ContourSimplifier simplifier;
+    private final SimplifierConfig simplifierConfig;
+    private final ContourTracer tracer;
+    private final ProgressListener listener;
+
+    /**
+     * Declare the settings for parsing an image
+     *
+     * @param checkHoles Determines if holes in the image are searched for
+     * @param alphaThreshold Alpha a pixel must be above to be part of a shape, from 0 to 254
+     * @param simplifier Simplification algorithm applied to the traced points, one of the simplifier constants
+     * @param limit Tolerance of the simplification algorithm, higher values remove more points
+     * @param average Number of points averaged together by the experimental simplification algorithms
+     * @param tracer Engine used to trace the outlines in the image, or null to trace the image pixel by pixel. Must be safe to share between threads
+     * @param listener Listener told of the parser's progress, or null if nobody is listening. Must be safe to share between threads
+     */
+    public ParseOptions(boolean checkHoles, int alphaThreshold, int simplifier, float limit, int average, ContourTracer tracer, ProgressListener listener)
+    {
+        this(checkHoles, alphaThreshold, simplifier, limit, average, 0, tracer, listener);
+    }
+
+    /**
+     * Declare the settings for parsing an image, with a budget on the number of vertices kept by the simplifiers that support one
+     *
+     * @param checkHoles Determines if holes in the image are searched for
+     * @param alphaThreshold Alpha a pixel must be above to be part of a shape, from 0 to 254
+     * @param simplifier Simplification algorithm applied to the traced points, one of the simplifier constants
+     * @param limit Tolerance of the simplification algorithm, higher values remove more points
+     * @param average Number of points averaged together by the experimental simplification algorithms
+     * @param maxVertices Greatest number of vertices the simplifier keeps in each outline, or 0 for no budget
+     * @param tracer Engine used to trace the outlines in the image, or null to trace the image pixel by pixel. Must be safe to share between threads
+     * @param listener Listener told of the parser's progress, or null if nobody is listening. Must be safe to share between threads
+     */
+    public ParseOptions(boolean checkHoles, int alphaThreshold, int simplifier, float limit, int average, int maxVertices, ContourTracer tracer, ProgressListener listener)
+    {
+        this(checkHoles, alphaThreshold, SimplifierRegistry.get(simplifier), new SimplifierConfig(limit, average, maxVertices), tracer, listener);
+    }
+
+    /**
+     * Declare the settings for parsing an image with any registered simplifier
+     *
+     * @param checkHoles Determines if holes in the image are searched for
+     * @param alphaThreshold Alpha a pixel must be above to be part of a shape, from 0 to 254
+     * @param simplifier Simplification algorithm applied to the traced points
+     * @param simplifierConfig Parameters handed to the simplifier
+     * @param tracer Engine used to trace the outlines in the image, or null to trace the image pixel by pixel. Must be safe to share between threads
+     * @param listener Listener told of the parser's progress, or null if nobody is listening. Must be safe to share between threads
+     */
+    public ParseOptions(boolean checkHoles, int alphaThreshold, ContourSimplifier simplifier, SimplifierConfig simplifierConfig, ContourTracer tracer, ProgressListener listener)
+    {
+        this.checkHoles = checkHoles;
+        this.alphaThreshold = alphaThreshold;
+        this.simplifier = simplifier;
+        this.simplifierConfig = simplifierConfig;
+        this.tracer = tracer;
+        this.listener = listener;
+    }
+
+    /**
+     * Determine if holes in the image are searched for
+     *
+     * @return determines if holes are searched for
+     */
+    public boolean checkHoles()
+    {
+        return checkHoles;
+    }
+
+    /**
+     * Get the alpha a pixel must be above to be part of a shape
+     *
+     * @return Alpha threshold, from 0 to 254
+     */
+    public int getAlphaThreshold()
+    {
+        return alphaThreshold;
+    }
+
+    /**
+     * Get the simplification algorithm applied to the traced points
+     *
+     * @return Simplifier
+     */
+    public ContourSimplifier getSimplifier()
+    {
+        return simplifier;
+    }
+
+    /**
+     * Get the parameters handed to the simplifier
+     *
+     * @return Simplifier parameters
+     */
+    public SimplifierConfig getSimplifierConfig()
+    {
+        return simplifierConfig;
+    }
+
+    /**
+     * Get the tolerance of the simplification algorithm
+     *
+     * @return Simplification limit
+     */
+    public float getLimit()
+    {
+        return simplifierConfig.getLimit();
+    }
+
+    /**
+     * Get the number of points averaged together by the experimental simplification algorithms
+     *
+     * @return Number of points to average
+     */
+    public int getAverage()
+    {
+        return simplifierConfig.getAverage();
+    }
+
+    /**
+     * Get the greatest number of vertices the simplifier keeps in each outline
+     *
+     * @return Vertex budget, or 0 if there is none
+     */
+    public int getMaxVertices()
+    {
+        return simplifierConfig.getMaxVertices();
+    }
+
+    /**
+     * Get the engine used to trace the outlines in the image
+     *
+     * @return Tracing engine, or null if the image is traced pixel by pixel
+     */
+    public ContourTracer getTracer()
+    {
+        return tracer;
+    }
+
+    /**
+     * Get the listener told of the parser's progress
+     *
+     * @return Progress listener, or null if nobody is listening
+     */
+    public ProgressListener getProgressListener()
+    {
+        return listener;
+    }
+}
@@ -120,7 +120,6 @@ public class Pixel
      */
     public void setNSP(Pixel p)
     {
-        System.out.println(p.x + " " + p.y);
         nspX = p.x;
         nspY = p.y;
     }
@@ -0,0 +1,564 @@
+package com.base.engine.imageparsing;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.nio.ByteBuffer;
+
+/**
+ * Packed one-bit-per-pixel mask of an image, stored row by row in an array of longs
+ * The mask is padded with empty pixels on every side so that neighbourhood checks around the edge of the image need no bounds checks
+ *
+ * @author Jordan
+ */
+public final class PixelMask
+{
+    //number of empty pixels kept around each side of the mask
+    //traced points can sit one pixel outside the image once repositioned and the simplifiers check one pixel around those
+    public static final int PAD = 2;
+
+    //packs alpha a vector at a time when the vector API is available
+    private static final AlphaPacker PACKER = loadPacker();
+
+    private final int width;
+    private final int height;
+    private final int stride;
+    private final long[] bits;
+
+    /**
+     * Create an empty mask
+     *
+     * @param width Width of the image the mask covers
+     * @param height Height of the image the mask covers
+     */
+    public PixelMask(int width, int height)
+    {
+        this.width = width;
+        this.height = height;
+
+        //number of longs that make up a single padded row
+        stride = (width + (PAD * 2) + 63) >>> 6;
+        bits = new long[stride * (height + (PAD * 2))];
+    }
+
+    /**
+     * Determine if a mask of a given size can be created, its padded rows having to fit in a single array
+     *
+     * @param width Width of the image the mask would cover
+     * @param height Height of the image the mask would cover
+     * @return determines if the mask can be created
+     */
+    static boolean fits(int width, int height)
+    {
+        long stride = ((long)width + (PAD * 2) + 63) >>> 6;
+        //arrays can't quite reach the greatest int in length on every virtual machine
+        return stride * ((long)height + (PAD * 2)) <= Integer.MAX_VALUE - 8;
+    }
+
+    /**
+     * Build a mask from the alpha channel of an image, setting every pixel that is not fully transparent
+     *
+     * @param img Image we wish to build the mask from
+     * @return Mask of every pixel in the image that has an alpha value
+     */
+    public static PixelMask fromImage(BufferedImage img)
+    {
+        return fromImage(img, 0);
+    }
+
+    /**
+     * Build a mask from the alpha channel of an image, setting every pixel with an alpha above a threshold
+     * Reads straight from the raster's backing array when the image layout allows it
+     *
+     * @param img Image we wish to build the mask from
+     * @param threshold Alpha a pixel must be above to be set, from 0 to 254
+     * @return Mask of every pixel in the image with an alpha above the threshold
+     */
+    public static PixelMask fromImage(BufferedImage img, int threshold)
+    {
+        PixelMask mask = new PixelMask(img.getWidth(), img.getHeight());
+        Raster raster = img.getRaster();
+        DataBuffer buffer = raster.getDataBuffer();
+        SampleModel model = raster.getSampleModel();
+
+        if(!img.getColorModel().hasAlpha())
+        {
+            //every pixel is opaque
+            mask.fill();
+        }
+        else if(buffer instanceof DataBufferInt && model instanceof SinglePixelPackedSampleModel && buffer.getNumBanks() == 1)
+        {
+            SinglePixelPackedSampleModel packed = (SinglePixelPackedSampleModel)model;
+            mask.readPacked(((DataBufferInt)buffer).getData(), buffer.getOffset() + packed.getOffset(-raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY()), packed.getScanlineStride(), packed.getBitMasks()[3], threshold);
+        }
+        else if(buffer instanceof DataBufferByte && model instanceof ComponentSampleModel && buffer.getNumBanks() == 1 && model.getNumBands() == 4)
+        {
+            //the colour model always stores alpha as the last band
+            ComponentSampleModel component = (ComponentSampleModel)model;
+            int offset = buffer.getOffset() + component.getOffset(-raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY(), 3);
+            mask.readInterleaved(((DataBufferByte)buffer).getData(), offset, component.getScanlineStride(), component.getPixelStride(), threshold);
+        }
+        else
+        {
+            mask.readImage(img, threshold);
+        }
+        return mask;
+    }
+
+    /**
+     * Pick the fastest way of packing alpha available to the JVM
+     *
+     * @return Vector packer if its optional build and the vector API module are both present, scalar packer otherwise
+     */
+    private static AlphaPacker loadPacker()
+    {
+        try
+        {
+            //loaded by name since it is built separately, see optional/vector, and so that nothing else depends on the incubator module
+            return (AlphaPacker)Class.forName("com.base.engine.imageparsing.VectorAlphaPacker").getDeclaredConstructor().newInstance();
+        }
+        catch(ReflectiveOperationException | LinkageError e)
+        {
+            return new ScalarAlphaPacker();
+        }
+    }
+
+    /**
+     * Store a word of up to 64 packed pixels into a row of the mask
+     *
+     * @param row Index of the row's first long
+     * @param x coordinate along X of the pixel in the lowest bit of the word
+     * @param word Packed pixels
+     */
+    private void orWord(int row, int x, long word)
+    {
+        int px = x + PAD;
+        int shift = px & 63;
+        bits[row + (px >>> 6)] |= word << shift;
+        if(shift != 0)
+        {
+            //the padding at the end of each row means the next long is always there to spill into
+            bits[row + (px >>> 6) + 1] |= word >>> (64 - shift);
+        }
+    }
+
+    /**
+     * Store a word of up to 64 packed pixels into the mask
+     *
+     * @param y coordinate along Y of the row
+     * @param x coordinate along X of the pixel in the lowest bit of the word
+     * @param word Packed pixels, with no bits set beyond the width of the image
+     */
+    void orBits(int y, int x, long word)
+    {
+        orWord((y + PAD) * stride, x, word);
+    }
+
+    /**
+     * Set every pixel within the image range
+     */
+    void fill()
+    {
+        for(int y = 0; y < height; y++)
+        {
+            for(int x = 0; x < width; x++)
+            {
+                set(x, y);
+            }
+        }
+    }
+
+    /**
+     * Read alpha from an array of packed integer pixels, 64 pixels at a time
+     *
+     * @param data Backing array of the image raster
+     * @param offset Index of the first pixel in the array
+     * @param scanline Number of array elements between the start of each row
+     * @param alphaMask Bit mask of the alpha channel within a pixel
+     * @param threshold Alpha a pixel must be above to be set
+     */
+    private void readPacked(int[] data, int offset, int scanline, int alphaMask, int threshold)
+    {
+        int shift = Integer.numberOfTrailingZeros(alphaMask);
+        for(int y = 0; y < height; y++)
+        {
+            int index = offset + (y * scanline);
+            int row = (y + PAD) * stride;
+            for(int x = 0; x < width; x += 64)
+            {
+                long word = PACKER.pack(data, index + x, Math.min(64, width - x), alphaMask, shift, threshold);
+                if(word != 0)
+                {
+                    orWord(row, x, word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read alpha from an array of interleaved byte samples
+     *
+     * @param data Backing array of the image raster
+     * @param offset Index of the alpha sample of the first pixel in the array
+     * @param scanline Number of array elements between the start of each row
+     * @param pixelStride Number of array elements between each pixel
+     * @param threshold Alpha a pixel must be above to be set
+     */
+    private void readInterleaved(byte[] data, int offset, int scanline, int pixelStride, int threshold)
+    {
+        for(int y = 0; y < height; y++)
+        {
+            int index = offset + (y * scanline);
+            int row = (y + PAD) * stride;
+            for(int x = 0; x < width; x += 64)
+            {
+                int count = Math.min(64, width - x);
+                long word = 0;
+                for(int i = 0; i < count; i++)
+                {
+                    if((data[index] & 0xFF) > threshold)
+                    {
+                        word |= 1L << i;
+                    }
+                    index += pixelStride;
+                }
+                if(word != 0)
+                {
+                    orWord(row, x, word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read pixels stored as packed bits, 64 pixels at a time where a row has enough bytes left
+     *
+     * @param data Little-endian buffer holding the pixels
+     * @param offset Index of the first byte of the first row
+     * @param rowBytes Number of bytes in each row, each row starting on a new byte
+     */
+    void readBits(ByteBuffer data, int offset, int rowBytes)
+    {
+        for(int y = 0; y < height; y++)
+        {
+            int index = offset + (y * rowBytes);
+            int row = (y + PAD) * stride;
+            for(int x = 0; x < width; x += 64)
+            {
+                int count = Math.min(64, width - x);
+                long word;
+                if((x >>> 3) + 8 <= rowBytes)
+                {
+                    word = data.getLong(index + (x >>> 3));
+                }
+                else
+                {
+                    //the end of the row, which can't be read as a whole long without running into the next row
+                    word = 0;
+                    for(int i = 0; (i << 3) < count; i++)
+                    {
+                        word |= (data.get(index + (x >>> 3) + i) & 0xFFL) << (i << 3);
+                    }
+                }
+                if(count < 64)
+                {
+                    //drop the padding bits after the last pixel
+                    word &= (1L << count) - 1;
+                }
+                if(word != 0)
+                {
+                    orWord(row, x, word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read pixels stored as one alpha byte each
+     *
+     * @param data Buffer holding the pixels
+     * @param offset Index of the first byte of the first row
+     * @param threshold Alpha a pixel must be above to be set
+     */
+    void readBytes(ByteBuffer data, int offset, int threshold)
+    {
+        for(int y = 0; y < height; y++)
+        {
+            int index = offset + (y * width);
+            int row = (y + PAD) * stride;
+            for(int x = 0; x < width; x += 64)
+            {
+                int count = Math.min(64, width - x);
+                long word = 0;
+                for(int i = 0; i < count; i++)
+                {
+                    if((data.get(index++) & 0xFF) > threshold)
+                    {
+                        word |= 1L << i;
+                    }
+                }
+                if(word != 0)
+                {
+                    orWord(row, x, word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read alpha through the image's colour model, one row at a time
+     * Slowest path, only used for image layouts that can't be read directly
+     *
+     * @param img Image we are reading from
+     * @param threshold Alpha a pixel must be above to be set
+     */
+    private void readImage(BufferedImage img, int threshold)
+    {
+        int[] rgb = new int[width];
+        for(int y = 0; y < height; y++)
+        {
+            img.getRGB(0, y, width, 1, rgb, 0, width);
+            int row = (y + PAD) * stride;
+            for(int x = 0; x < width; x += 64)
+            {
+                long word = PACKER.pack(rgb, x, Math.min(64, width - x), 0xFF000000, 24, threshold);
+                if(word != 0)
+                {
+                    orWord(row, x, word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a copy of the mask turned upside down, so that the bottom row of the image becomes row 0
+     *
+     * @return Flipped copy of the mask
+     */
+    public PixelMask flip()
+    {
+        PixelMask flipped = new PixelMask(width, height);
+        for(int y = 0; y < height; y++)
+        {
+            System.arraycopy(bits, (y + PAD) * stride, flipped.bits, ((height - 1 - y) + PAD) * stride, stride);
+        }
+        return flipped;
+    }
+
+    /**
+     * Find the smallest rectangle holding every set pixel, scanning the mask a word at a time
+     * Empty rows are found by testing each of their longs for zero, then the rows in between are ORed together to find the empty columns
+     *
+     * @return Bounds of the set pixels, or null if the mask is empty
+     */
+    public Rectangle getBounds()
+    {
+        int bottom = 0;
+        while(bottom < height && isRowEmpty(bottom))
+        {
+            bottom++;
+        }
+        if(bottom == height)
+        {
+            return null;
+        }
+        int top = height - 1;
+        while(isRowEmpty(top))
+        {
+            top--;
+        }
+
+        long[] columns = new long[stride];
+        for(int y = bottom; y <= top; y++)
+        {
+            int row = (y + PAD) * stride;
+            for(int i = 0; i < stride; i++)
+            {
+                columns[i] |= bits[row + i];
+            }
+        }
+        int left = 0;
+        while(columns[left] == 0)
+        {
+            left++;
+        }
+        int right = stride - 1;
+        while(columns[right] == 0)
+        {
+            right--;
+        }
+        int minX = (left << 6) + Long.numberOfTrailingZeros(columns[left]) - PAD;
+        int maxX = (right << 6) + 63 - Long.numberOfLeadingZeros(columns[right]) - PAD;
+        return new Rectangle(minX, bottom, maxX - minX + 1, top - bottom + 1);
+    }
+
+    /**
+     * Test a row of the mask for any set pixels
+     *
+     * @param y Row to test
+     * @return determines if no pixel in the row is set
+     */
+    private boolean isRowEmpty(int y)
+    {
+        int row = (y + PAD) * stride;
+        for(int i = 0; i < stride; i++)
+        {
+            if(bits[row + i] != 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copy a rectangle out of the mask into a mask of its own, a word of pixels at a time
+     *
+     * @param bounds Rectangle to copy, lying within the image
+     * @return Mask the size of the rectangle, its bottom-left pixel being the rectangle's bottom-left corner
+     */
+    public PixelMask crop(Rectangle bounds)
+    {
+        PixelMask cropped = new PixelMask(bounds.width, bounds.height);
+        for(int y = 0; y < bounds.height; y++)
+        {
+            int row = (bounds.y + y + PAD) * stride;
+            int croppedRow = (y + PAD) * cropped.stride;
+            for(int x = 0; x < bounds.width; x += 64)
+            {
+                int px = bounds.x + x + PAD;
+                int shift = px & 63;
+                long word = bits[row + (px >>> 6)] >>> shift;
+                if(shift != 0)
+                {
+                    //the padding at the end of each row means the next long is always there to read from
+                    word |= bits[row + (px >>> 6) + 1] << (64 - shift);
+                }
+                if(bounds.width - x < 64)
+                {
+                    //drop the pixels beyond the right of the rectangle
+                    word &= (1L << (bounds.width - x)) - 1;
+                }
+                cropped.orWord(croppedRow, x, word);
+            }
+        }
+        return cropped;
+    }
+
+    /**
+     * Get the width of the image the mask covers
+     *
+     * @return Width of the mask in pixels, not including padding
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Get the height of the image the mask covers
+     *
+     * @return Height of the mask in pixels, not including padding
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Get the number of longs that make up a single padded row of the mask
+     *
+     * @return Longs per row
+     */
+    int getStride()
+    {
+        return stride;
+    }
+
+    /**
+     * Read a long of a padded row straight from the mask
+     * Bit b of word i holds the pixel at (i * 64) + b - PAD along X, the padding always being empty
+     *
+     * @param y Row to read, which may lie up to PAD rows outside of the image
+     * @param i Index of the long within the row
+     * @return Packed pixels
+     */
+    long getWord(int y, int i)
+    {
+        return bits[((y + PAD) * stride) + i];
+    }
+
+    /**
+     * Test a pixel in the mask
+     * Coordinates may lie up to PAD pixels outside of the image, where the mask is always empty
+     *
+     * @param x coordinate of the pixel along X
+     * @param y coordinate of the pixel along Y
+     * @return determines if the pixel is set
+     */
+    public boolean get(int x, int y)
+    {
+        int px = x + PAD;
+        return ((bits[((y + PAD) * stride) + (px >>> 6)] >>> px) & 1L) != 0;
+    }
+
+    /**
+     * Read the 3x3 block of pixels centred on a pixel in one go
+     * Bit (row * 3) + column is set for each pixel of the block that is set, row 0 being y - 1 and column 0 being x - 1.
+     * Coordinates may lie up to PAD - 1 pixels outside of the image
+     *
+     * @param x coordinate of the centre pixel along X
+     * @param y coordinate of the centre pixel along Y
+     * @return 9-bit occupancy of the block
+     */
+    public int neighbourhood(int x, int y)
+    {
+        int px = x - 1 + PAD;
+        int word = px >>> 6;
+        int shift = px & 63;
+        int block = 0;
+        int row = ((y - 1) + PAD) * stride;
+        for(int i = 0; i < 9; i += 3)
+        {
+            long three = bits[row + word] >>> shift;
+            //the block straddles two words
+            if(shift > 61)
+            {
+                three |= bits[row + word + 1] << (64 - shift);
+            }
+            block |= ((int)three & 7) << i;
+            row += stride;
+        }
+        return block;
+    }
+
+    /**
+     * Set a pixel in the mask
+     *
+     * @param x coordinate of the pixel along X
+     * @param y coordinate of the pixel along Y
+     */
+    public void set(int x, int y)
+    {
+        int px = x + PAD;
+        bits[((y + PAD) * stride) + (px >>> 6)] |= 1L << px;
+    }
+
+    /**
+     * Clear a pixel in the mask
+     *
+     * @param x coordinate of the pixel along X
+     * @param y coordinate of the pixel along Y
+     */
+    public void clear(int x, int y)
+    {
+        int px = x + PAD;
+        bits[((y + PAD) * stride) + (px >>> 6)] &= ~(1L << px);
+    }
+}
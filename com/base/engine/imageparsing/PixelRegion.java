@@ -0,0 +1,172 @@
+package com.base.engine.imageparsing;
+
+/**
+ * A connected region of pixels found in an image, either part of a shape or a hole of background pixels enclosed by a shape
+ *
+ * @author Jordan
+ */
+public class PixelRegion
+{
+    //parent of any region that sits directly in the background surrounding the image
+    public static final int OUTSIDE = -1;
+
+    private final int id;
+    private final boolean shape;
+    private int parent = OUTSIDE;
+    private int seedX, seedY;
+    private int minX, minY, maxX, maxY;
+    private int size;
+
+    /**
+     * Declare a region, starting from the first pixel found in it
+     *
+     * @param id Index of the region amongst all regions of the image
+     * @param shape Determines if the region is made of shape pixels or background pixels
+     * @param x coordinate of the first pixel along X
+     * @param y coordinate of the first pixel along Y
+     */
+    public PixelRegion(int id, boolean shape, int x, int y)
+    {
+        this.id = id;
+        this.shape = shape;
+        seedX = x;
+        seedY = y;
+        minX = x;
+        maxX = x;
+        minY = y;
+        maxY = y;
+    }
+
+    /**
+     * Grow the region to include another pixel
+     *
+     * @param x coordinate of the pixel along X
+     * @param y coordinate of the pixel along Y
+     */
+    void add(int x, int y)
+    {
+        minX = Math.min(minX, x);
+        maxX = Math.max(maxX, x);
+        minY = Math.min(minY, y);
+        maxY = Math.max(maxY, y);
+        size++;
+    }
+
+    /**
+     * Set the region this region sits inside of
+     *
+     * @param parent Index of the enclosing region
+     */
+    void setParent(int parent)
+    {
+        this.parent = parent;
+    }
+
+    /**
+     * Get the index of the region amongst all regions of the image
+     *
+     * @return Index of the region
+     */
+    public int getId()
+    {
+        return id;
+    }
+
+    /**
+     * Determine if the region is part of a shape or a hole in one
+     *
+     * @return determines if the region is made of shape pixels
+     */
+    public boolean isShape()
+    {
+        return shape;
+    }
+
+    /**
+     * Get the region this region sits inside of
+     * For a hole this is the shape it was cut out of
+     *
+     * @return Index of the enclosing region, or OUTSIDE if the region sits in the background around the image
+     */
+    public int getParent()
+    {
+        return parent;
+    }
+
+    /**
+     * Get the seed pixel along X
+     * The seed is the region's first pixel in row order, so the pixel to its left or below it is always outside of the region
+     *
+     * @return coordinate of the seed pixel along X
+     */
+    public int getSeedX()
+    {
+        return seedX;
+    }
+
+    /**
+     * Get the seed pixel along Y
+     *
+     * @return coordinate of the seed pixel along Y
+     */
+    public int getSeedY()
+    {
+        return seedY;
+    }
+
+    /**
+     * Get the lowest coordinate of the region along X
+     *
+     * @return lowest coordinate along X
+     */
+    public int getMinX()
+    {
+        return minX;
+    }
+
+    /**
+     * Get the lowest coordinate of the region along Y
+     *
+     * @return lowest coordinate along Y
+     */
+    public int getMinY()
+    {
+        return minY;
+    }
+
+    /**
+     * Get the highest coordinate of the region along X
+     *
+     * @return highest coordinate along X
+     */
+    public int getMaxX()
+    {
+        return maxX;
+    }
+
+    /**
+     * Get the highest coordinate of the region along Y
+     *
+     * @return highest coordinate along Y
+     */
+    public int getMaxY()
+    {
+        return maxY;
+    }
+
+    /**
+     * Get the number of pixels in the region
+     *
+     * @return Pixel count of the region
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+    @Override
+    public String toString()
+    {
+        return (shape ? "shape " : "hole ") + id + " seed x:" + seedX + " y:" + seedY + " size:" + size;
+    }
+}
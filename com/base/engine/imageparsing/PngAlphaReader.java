@@ -0,0 +1,501 @@
+package com.base.engine.imageparsing;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads only the alpha of a PNG image, straight into a PixelMask
+ * The image data is inflated and unfiltered one scanline at a time and each row is thresholded into the mask as soon as it is ready,
+ * so no image is ever built and only two scanlines are held besides the mask itself.
+ * Images with no alpha channel and no transparent colour are opaque throughout and their image data is never inflated at all
+ *
+ * Interlaced images aren't read, callers should decode those in full instead
+ *
+ * @author Jordan
+ */
+public final class PngAlphaReader
+{
+    private static final long SIGNATURE = 0x89504E470D0A1A0AL;
+
+    private static final int IHDR = 0x49484452;
+    private static final int TRNS = 0x74524E53;
+    private static final int IDAT = 0x49444154;
+
+    private static final int GREY = 0;
+    private static final int RGB = 2;
+    private static final int PALETTE = 3;
+    private static final int GREY_ALPHA = 4;
+    private static final int RGBA = 6;
+
+    private final DataInputStream in;
+    private final int threshold;
+    private final Inflater inflater = new Inflater();
+    private final byte[] input = new byte[8192];
+    //bytes of the current IDAT chunk not yet handed to the inflater
+    private int idatRemaining = 0;
+
+    private int width;
+    private int height;
+    private int bitDepth;
+    private int colourType;
+    private int channels;
+    //visibility of each palette entry, for palette images with transparency
+    private boolean[] paletteVisible;
+    //samples of the single transparent colour, for grey and RGB images with transparency
+    private int[] transparent;
+
+    /**
+     * Prepare to read a PNG image from a stream
+     *
+     * @param in Stream positioned at the start of the image
+     * @param threshold Alpha a pixel must be above to be set, from 0 to 254
+     */
+    private PngAlphaReader(DataInputStream in, int threshold)
+    {
+        this.in = in;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Determine if a file is named as a PNG image
+     *
+     * @param path Filepath we are checking
+     * @return determines if the file has the PNG extension
+     */
+    public static boolean isPng(String path)
+    {
+        return path.toLowerCase().endsWith(".png");
+    }
+
+    /**
+     * Read the alpha of a PNG image into a mask
+     *
+     * @param file PNG image to read
+     * @param threshold Alpha a pixel must be above to be set, from 0 to 254
+     * @return Mask of every pixel with an alpha above the threshold, with row 0 being the top row of the image, or null if the image is interlaced
+     * @throws IOException if the file can't be read or isn't a valid PNG image
+     */
+    public static PixelMask read(File file, int threshold) throws IOException
+    {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        PngAlphaReader reader = new PngAlphaReader(in, threshold);
+        try
+        {
+            return reader.read();
+        }
+        finally
+        {
+            reader.inflater.end();
+            in.close();
+        }
+    }
+
+    /**
+     * Read the header chunks of the image, then its image data
+     *
+     * @return Mask of the image, or null if it is interlaced
+     * @throws IOException if the image isn't a valid PNG image
+     */
+    private PixelMask read() throws IOException
+    {
+        if(in.readLong() != SIGNATURE)
+        {
+            throw new IOException("Not a PNG image");
+        }
+        if(in.readInt() != 13 || in.readInt() != IHDR)
+        {
+            throw new IOException("PNG image has no header");
+        }
+        width = in.readInt();
+        height = in.readInt();
+        bitDepth = in.readUnsignedByte();
+        colourType = in.readUnsignedByte();
+        int compression = in.readUnsignedByte();
+        int filter = in.readUnsignedByte();
+        int interlace = in.readUnsignedByte();
+        in.readInt();
+
+        channels = channelsOf(colourType);
+        if(width <= 0 || height <= 0 || compression != 0 || filter != 0 || channels == 0)
+        {
+            throw new IOException("Unsupported PNG header");
+        }
+        if(interlace != 0)
+        {
+            return null;
+        }
+
+        //chunks before the image data, only transparency matters
+        boolean hasTransparency = false;
+        while(true)
+        {
+            int length = in.readInt();
+            int type = in.readInt();
+            if(type == IDAT)
+            {
+                idatRemaining = length;
+                break;
+            }
+            if(type == TRNS)
+            {
+                hasTransparency = readTransparency(length) || hasTransparency;
+            }
+            else
+            {
+                skip(length);
+            }
+            in.readInt();
+        }
+
+        PixelMask mask = new PixelMask(width, height);
+        if(colourType != GREY_ALPHA && colourType != RGBA && !hasTransparency)
+        {
+            //every pixel is opaque
+            mask.fill();
+            return mask;
+        }
+        readRows(mask);
+        return mask;
+    }
+
+    /**
+     * Get the number of samples in each pixel of a colour type
+     *
+     * @param colourType Colour type from the image header
+     * @return Number of samples per pixel, or 0 if the colour type is unknown
+     */
+    private static int channelsOf(int colourType)
+    {
+        switch(colourType)
+        {
+            case GREY:
+            case PALETTE:
+                return 1;
+            case GREY_ALPHA:
+                return 2;
+            case RGB:
+                return 3;
+            case RGBA:
+                return 4;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Read the transparency chunk, either the alpha of each palette entry or a single transparent colour
+     * A chunk that doesn't fit the colour type is skipped and leaves the image opaque, as the image decoders do
+     *
+     * @param length Length of the chunk
+     * @return determines if the chunk gave the image any transparency
+     * @throws IOException if the chunk can't be read
+     */
+    private boolean readTransparency(int length) throws IOException
+    {
+        if(colourType == PALETTE)
+        {
+            //palette entries after the end of the chunk are opaque
+            paletteVisible = new boolean[256];
+            Arrays.fill(paletteVisible, true);
+            for(int i = 0; i < length; i++)
+            {
+                int alpha = in.readUnsignedByte();
+                if(i < 256)
+                {
+                    paletteVisible[i] = alpha > threshold;
+                }
+            }
+            return true;
+        }
+        else if((colourType == GREY || colourType == RGB) && length == channels * 2)
+        {
+            transparent = new int[channels];
+            for(int i = 0; i < channels; i++)
+            {
+                transparent[i] = in.readUnsignedShort();
+            }
+            return true;
+        }
+        skip(length);
+        return false;
+    }
+
+    /**
+     * Inflate and unfilter every scanline, thresholding each into the mask as it is finished
+     *
+     * @param mask Mask we are filling
+     * @throws IOException if the image data is cut short or corrupt
+     */
+    private void readRows(PixelMask mask) throws IOException
+    {
+        long rowBytes = (((long)width * bitDepth * channels) + 7) >>> 3;
+        if(rowBytes >= Integer.MAX_VALUE)
+        {
+            throw new IOException("PNG image too wide");
+        }
+
+        //each scanline starts with its filter type, the previous scanline starts out as all zeros
+        byte[] row = new byte[(int)rowBytes + 1];
+        byte[] previous = new byte[(int)rowBytes + 1];
+        int pixelBytes = Math.max(1, (bitDepth * channels) >>> 3);
+        for(int y = 0; y < height; y++)
+        {
+            inflateRow(row);
+            unfilter(row, previous, pixelBytes);
+            packRow(row, mask, y);
+
+            byte[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+    }
+
+    /**
+     * Inflate a whole scanline, feeding the inflater from the image data chunks as it runs dry
+     *
+     * @param row Scanline we are filling
+     * @throws IOException if the image data is cut short or corrupt
+     */
+    private void inflateRow(byte[] row) throws IOException
+    {
+        int offset = 0;
+        try
+        {
+            while(offset < row.length)
+            {
+                int count = inflater.inflate(row, offset, row.length - offset);
+                if(count == 0)
+                {
+                    if(inflater.finished() || inflater.needsDictionary())
+                    {
+                        throw new EOFException("PNG image data ended early");
+                    }
+                    if(inflater.needsInput())
+                    {
+                        fillInput();
+                    }
+                }
+                offset += count;
+            }
+        }
+        catch(DataFormatException e)
+        {
+            throw new IOException("Corrupt PNG image data", e);
+        }
+    }
+
+    /**
+     * Hand the inflater the next block of image data, moving on to the next image data chunk if the current one is used up
+     *
+     * @throws IOException if there is no more image data
+     */
+    private void fillInput() throws IOException
+    {
+        while(idatRemaining == 0)
+        {
+            //image data chunks always follow straight on from each other
+            in.readInt();
+            idatRemaining = in.readInt();
+            if(in.readInt() != IDAT)
+            {
+                throw new EOFException("PNG image data ended early");
+            }
+        }
+        int count = Math.min(input.length, idatRemaining);
+        in.readFully(input, 0, count);
+        idatRemaining -= count;
+        inflater.setInput(input, 0, count);
+    }
+
+    /**
+     * Undo the filter applied to a scanline
+     *
+     * @param row Scanline to unfilter, starting with its filter type
+     * @param previous Unfiltered scanline above it
+     * @param pixelBytes Distance in bytes to the same sample of the pixel to the left, at least 1
+     * @throws IOException if the filter type is unknown
+     */
+    private static void unfilter(byte[] row, byte[] previous, int pixelBytes) throws IOException
+    {
+        switch(row[0])
+        {
+            case 0:
+                break;
+            case 1:
+                for(int i = 1 + pixelBytes; i < row.length; i++)
+                {
+                    row[i] += row[i - pixelBytes];
+                }
+                break;
+            case 2:
+                for(int i = 1; i < row.length; i++)
+                {
+                    row[i] += previous[i];
+                }
+                break;
+            case 3:
+                for(int i = 1; i < row.length; i++)
+                {
+                    int left = i > pixelBytes ? row[i - pixelBytes] & 0xFF : 0;
+                    row[i] += (left + (previous[i] & 0xFF)) >>> 1;
+                }
+                break;
+            case 4:
+                for(int i = 1; i < row.length; i++)
+                {
+                    int left = i > pixelBytes ? row[i - pixelBytes] & 0xFF : 0;
+                    int up = previous[i] & 0xFF;
+                    int upLeft = i > pixelBytes ? previous[i - pixelBytes] & 0xFF : 0;
+                    row[i] += paeth(left, up, upLeft);
+                }
+                break;
+            default:
+                throw new IOException("Unknown PNG filter type " + row[0]);
+        }
+    }
+
+    /**
+     * Predict a byte from its neighbours, picking whichever is closest to left + up - upLeft
+     *
+     * @param left Byte to the left
+     * @param up Byte above
+     * @param upLeft Byte above and to the left
+     * @return Predicted byte
+     */
+    private static int paeth(int left, int up, int upLeft)
+    {
+        int p = left + up - upLeft;
+        int pLeft = Math.abs(p - left);
+        int pUp = Math.abs(p - up);
+        int pUpLeft = Math.abs(p - upLeft);
+        if(pLeft <= pUp && pLeft <= pUpLeft)
+        {
+            return left;
+        }
+        return pUp <= pUpLeft ? up : upLeft;
+    }
+
+    /**
+     * Threshold an unfiltered scanline into a row of the mask, 64 pixels at a time
+     *
+     * @param row Unfiltered scanline, starting with its filter type
+     * @param mask Mask we are filling
+     * @param y Row of the mask the scanline belongs to
+     */
+    private void packRow(byte[] row, PixelMask mask, int y)
+    {
+        //8 bit alpha is by far the most common layout, so it reads the alpha bytes directly
+        boolean byteAlpha = bitDepth == 8 && (colourType == GREY_ALPHA || colourType == RGBA);
+        for(int x = 0; x < width; x += 64)
+        {
+            int count = Math.min(64, width - x);
+            long word = 0;
+            if(byteAlpha)
+            {
+                int index = (x + 1) * channels;
+                for(int i = 0; i < count; i++)
+                {
+                    if((row[index] & 0xFF) > threshold)
+                    {
+                        word |= 1L << i;
+                    }
+                    index += channels;
+                }
+            }
+            else
+            {
+                for(int i = 0; i < count; i++)
+                {
+                    if(isVisible(row, x + i))
+                    {
+                        word |= 1L << i;
+                    }
+                }
+            }
+            if(word != 0)
+            {
+                mask.orBits(y, x, word);
+            }
+        }
+    }
+
+    /**
+     * Determine if a pixel of a scanline is part of a shape, for any layout other than 8 bit alpha
+     *
+     * @param row Unfiltered scanline, starting with its filter type
+     * @param x coordinate of the pixel along X
+     * @return determines if the pixel has an alpha above the threshold
+     */
+    private boolean isVisible(byte[] row, int x)
+    {
+        int first = x * channels;
+        switch(colourType)
+        {
+            case PALETTE:
+                return paletteVisible[sample(row, first)];
+            case GREY_ALPHA:
+            case RGBA:
+                //scaled to 8 bits the same way the colour model of a decoded image would
+                return (int)((sample(row, first + channels - 1) * 255 / 65535f) + 0.5f) > threshold;
+            default:
+                //grey and RGB pixels are only transparent if they are exactly the transparent colour
+                for(int i = 0; i < channels; i++)
+                {
+                    if(sample(row, first + i) != transparent[i])
+                    {
+                        return true;
+                    }
+                }
+                return false;
+        }
+    }
+
+    /**
+     * Read a single sample from a scanline, at any bit depth
+     *
+     * @param row Unfiltered scanline, starting with its filter type
+     * @param index Index of the sample within the scanline
+     * @return Value of the sample
+     */
+    private int sample(byte[] row, int index)
+    {
+        if(bitDepth == 16)
+        {
+            int i = 1 + (index << 1);
+            return ((row[i] & 0xFF) << 8) | (row[i + 1] & 0xFF);
+        }
+        if(bitDepth == 8)
+        {
+            return row[1 + index] & 0xFF;
+        }
+        //samples of less than a byte are packed from the highest bit down
+        int bit = index * bitDepth;
+        return ((row[1 + (bit >>> 3)] & 0xFF) >>> (8 - bitDepth - (bit & 7))) & ((1 << bitDepth) - 1);
+    }
+
+    /**
+     * Skip over bytes of the stream
+     *
+     * @param count Number of bytes to skip
+     * @throws IOException if the stream ends first
+     */
+    private void skip(int count) throws IOException
+    {
+        while(count > 0)
+        {
+            int skipped = in.skipBytes(count);
+            if(skipped <= 0)
+            {
+                throw new EOFException("PNG image ended early");
+            }
+            count -= skipped;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.base.engine.imageparsing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader for masks stored as raw binary files, for asset pipelines that already have the alpha of their images
+ * The file is mapped into memory and read straight into a PixelMask, so there is nothing to decode or inflate.
+ *
+ * A file is a 16 byte header followed by the pixels, all little-endian:
+ * the 4 bytes "MASK", the width and height as 4 byte integers, a format byte and 3 reserved bytes.
+ * Pixels are stored row by row from the top of the image, either as one alpha byte per pixel,
+ * or as packed bits with each row padded to a whole byte and the first pixel of each byte in its lowest bit
+ *
+ * @author Jordan
+ */
+public final class RawMask
+{
+    //file extension of raw masks
+    public static final String EXTENSION = "mask";
+
+    //pixels stored as packed bits, set for every pixel that is part of a shape
+    public static final int FORMAT_BITS = 1;
+    //pixels stored as one alpha byte each
+    public static final int FORMAT_BYTES = 8;
+
+    private static final int MAGIC = 'M' | ('A' << 8) | ('S' << 16) | ('K' << 24);
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * Cannot be created, only used for its static functions
+     */
+    private RawMask()
+    {
+    }
+
+    /**
+     * Determine if a file is named as a raw mask
+     *
+     * @param path Filepath we are checking
+     * @return determines if the file has the raw mask extension
+     */
+    public static boolean isRawMask(String path)
+    {
+        return path.toLowerCase().endsWith("." + EXTENSION);
+    }
+
+    /**
+     * Read a raw mask from file
+     *
+     * @param file File to read
+     * @param threshold Alpha a pixel must be above to be set, only used by masks stored as alpha bytes
+     * @return Mask of the file, with row 0 being the top row of the image
+     * @throws IOException if the file can't be read or isn't a valid raw mask
+     */
+    public static PixelMask read(File file, int threshold) throws IOException
+    {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try
+        {
+            long size = channel.size();
+            if(size < HEADER_SIZE)
+            {
+                throw new IOException("Raw mask too short: " + file);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+
+            if(header.getInt(0) != MAGIC)
+            {
+                throw new IOException("Not a raw mask: " + file);
+            }
+            int width = header.getInt(4);
+            int height = header.getInt(8);
+            int format = header.get(12);
+            if(width < 0 || height < 0)
+            {
+                throw new IOException("Raw mask has a negative size: " + file);
+            }
+
+            long rowBytes;
+            if(format == FORMAT_BITS)
+            {
+                rowBytes = ((long)width + 7) >>> 3;
+            }
+            else if(format == FORMAT_BYTES)
+            {
+                rowBytes = width;
+            }
+            else
+            {
+                throw new IOException("Unknown raw mask format " + format + ": " + file);
+            }
+            long length = HEADER_SIZE + (rowBytes * height);
+            if(size < length)
+            {
+                throw new IOException("Raw mask is missing pixels: " + file);
+            }
+            //only the header and pixels are mapped, a single mapping can't reach past the greatest int
+            if(length > Integer.MAX_VALUE || !PixelMask.fits(width, height))
+            {
+                throw new IOException("Raw mask too large to read: " + file);
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            data.order(ByteOrder.LITTLE_ENDIAN);
+
+            PixelMask mask = new PixelMask(width, height);
+            if(format == FORMAT_BITS)
+            {
+                mask.readBits(data, HEADER_SIZE, (int)rowBytes);
+            }
+            else
+            {
+                mask.readBytes(data, HEADER_SIZE, threshold);
+            }
+            return mask;
+        }
+        finally
+        {
+            //the mapping stays valid once the channel is closed and is released with the buffer
+            channel.close();
+        }
+    }
+}
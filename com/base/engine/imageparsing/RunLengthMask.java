@@ -0,0 +1,205 @@
+package com.base.engine.imageparsing;
+
+/**
+ * Run-length encoding of a mask, holding the runs of set pixels up each column of the image
+ * The runs are built in a single pass down the rows of the mask, a word of pixels at a time,
+ * each pixel where a column changes from empty to set or back starting or ending one of its runs.
+ * Searching a column then steps over whole runs of empty or solid pixels at once instead of testing them one by one
+ *
+ * @author Jordan
+ */
+public final class RunLengthMask
+{
+    private final int width;
+    private final int height;
+    //index into runs of each column's first run, with one more entry marking the end of the last column
+    private final int[] columns;
+    //bottom of each run followed by the row just above its top, column by column from the bottom of the image up
+    private final int[] runs;
+
+    /**
+     * Encode every column of a mask
+     *
+     * @param mask Mask of every pixel in the image that has an alpha value
+     */
+    public RunLengthMask(PixelMask mask)
+    {
+        width = mask.getWidth();
+        height = mask.getHeight();
+        columns = new int[width + 1];
+
+        //count the changes in each column first so that every column's runs can be laid out end to end
+        int[] counts = new int[width];
+        scan(mask, counts, null);
+        for(int x = 0; x < width; x++)
+        {
+            columns[x + 1] = columns[x] + counts[x];
+            counts[x] = columns[x];
+        }
+        runs = new int[columns[width]];
+        scan(mask, counts, runs);
+    }
+
+    /**
+     * Walk the rows of a mask from the bottom up, finding each pixel where its column changes from the row below
+     * The rows just beyond the image are always empty, so every column starts and ends empty and every run is closed
+     *
+     * @param mask Mask being encoded
+     * @param next Number of changes found in each column when counting, or the index the column's next change is stored at
+     * @param changes Array the changes are stored in, or null to only count them
+     */
+    private void scan(PixelMask mask, int[] next, int[] changes)
+    {
+        int stride = mask.getStride();
+        for(int y = 0; y <= height; y++)
+        {
+            for(int i = 0; i < stride; i++)
+            {
+                long changed = mask.getWord(y, i) ^ mask.getWord(y - 1, i);
+                while(changed != 0)
+                {
+                    //the padding never changes, so every change lies within the image
+                    int x = (i << 6) + Long.numberOfTrailingZeros(changed) - PixelMask.PAD;
+                    changed &= changed - 1;
+                    if(changes == null)
+                    {
+                        next[x]++;
+                    }
+                    else
+                    {
+                        changes[next[x]++] = y;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the width of the mask
+     *
+     * @return Width of the mask
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Get the height of the mask
+     *
+     * @return Height of the mask
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Get the number of runs of set pixels in a column
+     *
+     * @param x coordinate of the column along X
+     * @return Number of runs in the column
+     */
+    public int getRunCount(int x)
+    {
+        return (columns[x + 1] - columns[x]) / 2;
+    }
+
+    /**
+     * Get the bottom row of a run
+     *
+     * @param x coordinate of the column along X
+     * @param i Index of the run within the column, from the bottom up
+     * @return First set row of the run
+     */
+    public int getRunStart(int x, int i)
+    {
+        return runs[columns[x] + (i * 2)];
+    }
+
+    /**
+     * Get the row just above the top of a run
+     *
+     * @param x coordinate of the column along X
+     * @param i Index of the run within the column, from the bottom up
+     * @return First empty row after the run
+     */
+    public int getRunEnd(int x, int i)
+    {
+        return runs[columns[x] + (i * 2) + 1];
+    }
+
+    /**
+     * Find the first run in a column that reaches above a row
+     *
+     * @param x coordinate of the column along X
+     * @param y Row we are searching from
+     * @return Index into the runs of the run's start, or -1 if every run of the column ends at or below the row
+     */
+    private int findRun(int x, int y)
+    {
+        //binary search over the ends of the column's runs
+        int low = 0;
+        int high = (columns[x + 1] - columns[x]) / 2;
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if(runs[columns[x] + (mid * 2) + 1] > y)
+            {
+                high = mid;
+            }
+            else
+            {
+                low = mid + 1;
+            }
+        }
+        return low == (columns[x + 1] - columns[x]) / 2 ? -1 : columns[x] + (low * 2);
+    }
+
+    /**
+     * Find the first row at or above a given row where a column is no longer set on all three of the rows around it
+     *
+     * @param x coordinate of the column along X, which may lie outside of the image
+     * @param y Row we are searching from
+     * @return The given row if the column is empty on or next to it, otherwise the first row above it that is
+     */
+    private int coveredUntil(int x, int y)
+    {
+        if(x < 0 || x >= width)
+        {
+            return y;
+        }
+        int run = findRun(x, y + 1);
+        if(run == -1 || runs[run] > y - 1)
+        {
+            return y;
+        }
+        return runs[run + 1] - 1;
+    }
+
+    /**
+     * Find the next boundary pixel up a column, a boundary pixel being a set pixel with any of its 8 neighbours empty
+     * The bottom and top pixels of each run are always on the boundary,
+     * and the pixels between them are only on the boundary once a neighbouring column has an empty pixel beside them
+     *
+     * @param x coordinate of the column along X
+     * @param y Row to start searching from
+     * @return Row of the first boundary pixel at or above the given row, or the height of the mask if there are none
+     */
+    public int nextBoundary(int x, int y)
+    {
+        int run = findRun(x, y);
+        if(run == -1)
+        {
+            return height;
+        }
+        int start = runs[run];
+        int end = runs[run + 1];
+        if(y <= start)
+        {
+            return start;
+        }
+        //skip up the run for as long as both neighbouring columns are set around it
+        return Math.min(Math.min(coveredUntil(x - 1, y), coveredUntil(x + 1, y)), end - 1);
+    }
+}
@@ -0,0 +1,23 @@
+package com.base.engine.imageparsing;
+
+/**
+ * Packs pixels one at a time, used whenever the vector API isn't available
+ *
+ * @author Jordan
+ */
+final class ScalarAlphaPacker implements AlphaPacker
+{
+    @Override
+    public long pack(int[] data, int index, int count, int alphaMask, int shift, int threshold)
+    {
+        long word = 0;
+        for(int i = 0; i < count; i++)
+        {
+            if(((data[index + i] & alphaMask) >>> shift) > threshold)
+            {
+                word |= 1L << i;
+            }
+        }
+        return word;
+    }
+}
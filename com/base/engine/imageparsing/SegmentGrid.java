@@ -0,0 +1,266 @@
+package com.base.engine.imageparsing;
+
+/**
+ * Uniform grid of square cells over a set of line segments, each segment listed in every cell it passes through
+ * Segments are only known by an index, so the caller keeps their end points and passes them back in whenever a segment is added or removed.
+ * Finding the segments near a line then only means reading the cells along it rather than testing every segment.
+ * Cells are walked a row at a time, through the columns the segment spans within that row.
+ * Every span is widened by a fraction of a pixel so that rounding never leaves a segment out of a cell it touches
+ *
+ * @author Jordan
+ */
+final class SegmentGrid
+{
+    //cells are sized to hold a few of the original segments each, but never made smaller than a pixel
+    private static final int CELLS_PER_SEGMENT = 4;
+    private static final int INITIAL_CELL_CAPACITY = 4;
+    //far below the spacing of pixel coordinates, but far above the rounding of a float
+    private static final float PADDING = 0.001f;
+
+    private final float minX;
+    private final float minY;
+    private final float cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[][] cells;
+    private final int[] counts;
+
+    /**
+     * Lay a grid out over an area
+     *
+     * @param minX Least X coordinate of any segment
+     * @param minY Least Y coordinate of any segment
+     * @param maxX Greatest X coordinate of any segment
+     * @param maxY Greatest Y coordinate of any segment
+     * @param segmentCount Number of segments the grid is expected to hold
+     */
+    SegmentGrid(float minX, float minY, float maxX, float maxY, int segmentCount)
+    {
+        this.minX = minX;
+        this.minY = minY;
+        float width = Math.max(maxX - minX, 1);
+        float height = Math.max(maxY - minY, 1);
+        cellSize = (float)Math.max(Math.sqrt(((double)width * height) / ((double)Math.max(segmentCount, 1) * CELLS_PER_SEGMENT)), 1);
+        columns = (int)(width / cellSize) + 1;
+        rows = (int)(height / cellSize) + 1;
+        cells = new int[columns * rows][];
+        counts = new int[columns * rows];
+    }
+
+    /**
+     * Get the first column of the grid that a span starting at a coordinate reaches into, clamped to the grid
+     *
+     * @param x coordinate of the start of the span along X
+     * @return First column of the span
+     */
+    int firstColumn(float x)
+    {
+        return column(x - PADDING);
+    }
+
+    /**
+     * Get the last column of the grid that a span ending at a coordinate reaches into, clamped to the grid
+     *
+     * @param x coordinate of the end of the span along X
+     * @return Last column of the span
+     */
+    int lastColumn(float x)
+    {
+        return column(x + PADDING);
+    }
+
+    /**
+     * Get the first row of the grid that a span starting at a coordinate reaches into, clamped to the grid
+     *
+     * @param y coordinate of the start of the span along Y
+     * @return First row of the span
+     */
+    int firstRow(float y)
+    {
+        return row(y - PADDING);
+    }
+
+    /**
+     * Get the last row of the grid that a span ending at a coordinate reaches into, clamped to the grid
+     *
+     * @param y coordinate of the end of the span along Y
+     * @return Last row of the span
+     */
+    int lastRow(float y)
+    {
+        return row(y + PADDING);
+    }
+
+    /**
+     * Get the least X coordinate a segment reaches within a row
+     *
+     * @param row Row of the grid
+     * @param x0 coordinate of the segment's start along X
+     * @param y0 coordinate of the segment's start along Y
+     * @param x1 coordinate of the segment's end along X
+     * @param y1 coordinate of the segment's end along Y
+     * @return Least X coordinate of the segment within the row, or the greatest float if it doesn't reach the row
+     */
+    float spanStart(int row, float x0, float y0, float x1, float y1)
+    {
+        return span(row, x0, y0, x1, y1, false);
+    }
+
+    /**
+     * Get the greatest X coordinate a segment reaches within a row
+     *
+     * @param row Row of the grid
+     * @param x0 coordinate of the segment's start along X
+     * @param y0 coordinate of the segment's start along Y
+     * @param x1 coordinate of the segment's end along X
+     * @param y1 coordinate of the segment's end along Y
+     * @return Greatest X coordinate of the segment within the row, or the least float if it doesn't reach the row
+     */
+    float spanEnd(int row, float x0, float y0, float x1, float y1)
+    {
+        return span(row, x0, y0, x1, y1, true);
+    }
+
+    /**
+     * Get the number of segments listed in a cell
+     *
+     * @param column Column of the cell
+     * @param row Row of the cell
+     * @return Number of segments in the cell
+     */
+    int getCount(int column, int row)
+    {
+        return counts[(row * columns) + column];
+    }
+
+    /**
+     * Get a segment listed in a cell
+     *
+     * @param column Column of the cell
+     * @param row Row of the cell
+     * @param i Index of the segment within the cell
+     * @return Index of the segment
+     */
+    int getSegment(int column, int row, int i)
+    {
+        return cells[(row * columns) + column][i];
+    }
+
+    /**
+     * List a segment in every cell it passes through
+     *
+     * @param segment Index of the segment
+     * @param x0 coordinate of the segment's start along X
+     * @param y0 coordinate of the segment's start along Y
+     * @param x1 coordinate of the segment's end along X
+     * @param y1 coordinate of the segment's end along Y
+     */
+    void add(int segment, float x0, float y0, float x1, float y1)
+    {
+        int row1 = lastRow(Math.max(y0, y1));
+        for(int row = firstRow(Math.min(y0, y1)); row <= row1; row++)
+        {
+            int column1 = lastColumn(spanEnd(row, x0, y0, x1, y1));
+            for(int column = firstColumn(spanStart(row, x0, y0, x1, y1)); column <= column1; column++)
+            {
+                int cell = (row * columns) + column;
+                if(cells[cell] == null)
+                {
+                    cells[cell] = new int[INITIAL_CELL_CAPACITY];
+                }
+                else if(counts[cell] == cells[cell].length)
+                {
+                    int[] grown = new int[cells[cell].length * 2];
+                    System.arraycopy(cells[cell], 0, grown, 0, counts[cell]);
+                    cells[cell] = grown;
+                }
+                cells[cell][counts[cell]++] = segment;
+            }
+        }
+    }
+
+    /**
+     * Take a segment out of every cell it was listed in, the end points being the same as when it was added
+     *
+     * @param segment Index of the segment
+     * @param x0 coordinate of the segment's start along X
+     * @param y0 coordinate of the segment's start along Y
+     * @param x1 coordinate of the segment's end along X
+     * @param y1 coordinate of the segment's end along Y
+     */
+    void remove(int segment, float x0, float y0, float x1, float y1)
+    {
+        int row1 = lastRow(Math.max(y0, y1));
+        for(int row = firstRow(Math.min(y0, y1)); row <= row1; row++)
+        {
+            int column1 = lastColumn(spanEnd(row, x0, y0, x1, y1));
+            for(int column = firstColumn(spanStart(row, x0, y0, x1, y1)); column <= column1; column++)
+            {
+                int cell = (row * columns) + column;
+                for(int i = 0; i < counts[cell]; i++)
+                {
+                    if(cells[cell][i] == segment)
+                    {
+                        //order within a cell doesn't matter, so the last segment fills the gap
+                        cells[cell][i] = cells[cell][--counts[cell]];
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the column of the grid holding a coordinate, clamped to the grid
+     *
+     * @param x coordinate along X
+     * @return Column of the coordinate
+     */
+    private int column(float x)
+    {
+        return Math.min(Math.max((int)((x - minX) / cellSize), 0), columns - 1);
+    }
+
+    /**
+     * Get the row of the grid holding a coordinate, clamped to the grid
+     *
+     * @param y coordinate along Y
+     * @return Row of the coordinate
+     */
+    private int row(float y)
+    {
+        return Math.min(Math.max((int)((y - minY) / cellSize), 0), rows - 1);
+    }
+
+    /**
+     * Get either end of the part of a segment lying within a row, the row being widened by the padding
+     *
+     * @param row Row of the grid
+     * @param x0 coordinate of the segment's start along X
+     * @param y0 coordinate of the segment's start along Y
+     * @param x1 coordinate of the segment's end along X
+     * @param y1 coordinate of the segment's end along Y
+     * @param end Determines if the greatest X coordinate is wanted rather than the least
+     * @return X coordinate of the chosen end, or the furthest float the other way if the segment doesn't reach the row
+     */
+    private float span(int row, float x0, float y0, float x1, float y1, boolean end)
+    {
+        double bottom = minY + ((double)row * cellSize) - PADDING;
+        double top = bottom + cellSize + (PADDING * 2);
+        double low = Math.max(bottom, Math.min(y0, y1));
+        double high = Math.min(top, Math.max(y0, y1));
+        if(low > high)
+        {
+            return end ? -Float.MAX_VALUE : Float.MAX_VALUE;
+        }
+        if(y0 == y1)
+        {
+            return end ? Math.max(x0, x1) : Math.min(x0, x1);
+        }
+        //X changes steadily along the segment, so the part within the row ends where it crosses the row's edges
+        double slope = ((double)x1 - x0) / ((double)y1 - y0);
+        double a = x0 + ((low - y0) * slope);
+        double b = x0 + ((high - y0) * slope);
+        return (float)(end ? Math.max(a, b) : Math.min(a, b));
+    }
+}
@@ -0,0 +1,22 @@
+package com.base.engine.imageparsing;
+
+import java.util.ArrayList;
+
+/**
+ * Simplifier that has to see the outline of a shape and all of its holes at once, such as one keeping the loops from crossing each other
+ * The parser hands it every loop of a shape in a single call instead of simplifying each loop on its own
+ *
+ * @author Jordan
+ */
+public interface ShapeSimplifier extends ContourSimplifier
+{
+    /**
+     * Simplify the outline of a shape along with its holes
+     *
+     * @param loops Outline of the shape followed by its holes
+     * @param config Parameters of the simplification
+     * @param image Parser the loops were traced by
+     * @return Simplified loops, in the same order
+     */
+    ArrayList<Contour> simplifyShape(ArrayList<Contour> loops, SimplifierConfig config, ParseImage image);
+}
@@ -0,0 +1,58 @@
+package com.base.engine.imageparsing;
+
+/**
+ * Parameters handed to a simplifier on each call, fixed at creation so the same parameters can be shared between parsers on any number of threads
+ * Every simplifier is given all of the parameters and reads only the ones it uses
+ *
+ * @author Jordan
+ */
+public final class SimplifierConfig
+{
+    private final float limit;
+    private final int average;
+    private final int maxVertices;
+
+    /**
+     * Declare the parameters of a simplification
+     *
+     * @param limit Tolerance of the simplification algorithm, higher values remove more points
+     * @param average Number of points averaged together by the experimental simplification algorithms
+     * @param maxVertices Greatest number of vertices the simplifier keeps in each outline, or 0 for no budget
+     */
+    public SimplifierConfig(float limit, int average, int maxVertices)
+    {
+        this.limit = limit;
+        this.average = average;
+        this.maxVertices = maxVertices;
+    }
+
+    /**
+     * Get the tolerance of the simplification algorithm
+     *
+     * @return Simplification limit
+     */
+    public float getLimit()
+    {
+        return limit;
+    }
+
+    /**
+     * Get the number of points averaged together by the experimental simplification algorithms
+     *
+     * @return Number of points to average
+     */
+    public int getAverage()
+    {
+        return average;
+    }
+
+    /**
+     * Get the greatest number of vertices the simplifier keeps in each outline
+     *
+     * @return Vertex budget, or 0 if there is none
+     */
+    public int getMaxVertices()
+    {
+        return maxVertices;
+    }
+}
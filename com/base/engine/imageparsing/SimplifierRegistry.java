@@ -0,0 +1,111 @@
+package com.base.engine.imageparsing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Every simplifier available to the parser, looked up by name
+ * The built-in simplifiers come first, followed by any found through ServiceLoader in the order the classpath lists them.
+ * A simplifier found on the classpath can't replace one already registered under the same name
+ *
+ * @author Jordan
+ */
+public final class SimplifierRegistry
+{
+    private static final Map<String, ContourSimplifier> SIMPLIFIERS = load();
+
+    //built-in simplifier behind each of the simplifier constants of ParseOptions
+    private static final ContourSimplifier[] LEGACY = new ContourSimplifier[7];
+    static
+    {
+        LEGACY[ParseOptions.RAMER_SIMPLIFIER] = BuiltInSimplifiers.RAMER;
+        LEGACY[ParseOptions.CIRCLE_SIMPLIFIER] = BuiltInSimplifiers.CIRCLE;
+        LEGACY[ParseOptions.FLEXIBLE_SIMPLIFIER] = BuiltInSimplifiers.FLEXIBLE;
+        LEGACY[ParseOptions.ORIG_SIMPLIFIER] = BuiltInSimplifiers.ORIG;
+        LEGACY[ParseOptions.NO_SIMPLIFIER] = BuiltInSimplifiers.NONE;
+        LEGACY[ParseOptions.VISVALINGAM_SIMPLIFIER] = BuiltInSimplifiers.VISVALINGAM;
+        LEGACY[ParseOptions.RAMER_HULL_SIMPLIFIER] = BuiltInSimplifiers.RAMER_HULL;
+    }
+
+    private SimplifierRegistry()
+    {
+    }
+
+    /**
+     * Register the built-in simplifiers and then any found on the classpath
+     *
+     * @return Every simplifier by name, in the order they were registered
+     */
+    private static Map<String, ContourSimplifier> load()
+    {
+        Map<String, ContourSimplifier> simplifiers = new LinkedHashMap<String, ContourSimplifier>();
+        register(simplifiers, BuiltInSimplifiers.RAMER);
+        register(simplifiers, BuiltInSimplifiers.RAMER_HULL);
+        register(simplifiers, BuiltInSimplifiers.CIRCLE);
+        register(simplifiers, BuiltInSimplifiers.FLEXIBLE);
+        register(simplifiers, BuiltInSimplifiers.ORIG);
+        register(simplifiers, BuiltInSimplifiers.VISVALINGAM);
+        register(simplifiers, BuiltInSimplifiers.TOPOLOGY);
+        register(simplifiers, BuiltInSimplifiers.NONE);
+        for(ContourSimplifier simplifier : ServiceLoader.load(ContourSimplifier.class))
+        {
+            register(simplifiers, simplifier);
+        }
+        return Collections.unmodifiableMap(simplifiers);
+    }
+
+    /**
+     * Add a simplifier unless its name has already been taken
+     *
+     * @param simplifiers Simplifiers registered so far
+     * @param simplifier Simplifier to add
+     */
+    private static void register(Map<String, ContourSimplifier> simplifiers, ContourSimplifier simplifier)
+    {
+        if(!simplifiers.containsKey(simplifier.getName()))
+        {
+            simplifiers.put(simplifier.getName(), simplifier);
+        }
+    }
+
+    /**
+     * Get a simplifier by name
+     *
+     * @param name Name of the simplifier
+     * @return Simplifier, or null if none goes by that name
+     */
+    public static ContourSimplifier get(String name)
+    {
+        return SIMPLIFIERS.get(name);
+    }
+
+    /**
+     * Get the built-in simplifier behind one of the simplifier constants of ParseOptions
+     * Unknown constants leave the points unsimplified
+     *
+     * @param simplifier One of the simplifier constants
+     * @return Built-in simplifier
+     */
+    public static ContourSimplifier get(int simplifier)
+    {
+        if(simplifier < 0 || simplifier >= LEGACY.length)
+        {
+            return BuiltInSimplifiers.NONE;
+        }
+        return LEGACY[simplifier];
+    }
+
+    /**
+     * Get every available simplifier
+     *
+     * @return Simplifiers in the order they were registered
+     */
+    public static List<ContourSimplifier> getSimplifiers()
+    {
+        return new ArrayList<ContourSimplifier>(SIMPLIFIERS.values());
+    }
+}
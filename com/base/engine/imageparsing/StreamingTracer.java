@@ -0,0 +1,366 @@
+package com.base.engine.imageparsing;
+
+import com.base.engine.ProgressThrottle;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+
+/**
+ * Traces every outline in an image while reading it in bands of rows, so the whole image is never held in memory at once
+ * Each band is decoded on its own through the reader's source region and turned into a mask of just those rows, plus the row above.
+ * The corners between each pair of rows are walked from top to bottom, following the pixel edges the same way MarchingSquaresTracer does.
+ * Pieces of outline still open at the bottom of a band are kept in a frontier of one entry per column and joined up as the next band comes in,
+ * so memory grows with the width of the image and the length of its outlines rather than its area
+ *
+ * Closed outlines running counter-clockwise are shapes and clockwise ones are holes, which are handed to the smallest shape around them
+ *
+ * @author Jordan
+ */
+public class StreamingTracer
+{
+    //default number of rows decoded at a time
+    public static final int DEFAULT_BAND_HEIGHT = 256;
+
+    private static final int EAST = MarchingSquaresTracer.EAST;
+    private static final int NORTH = MarchingSquaresTracer.NORTH;
+    private static final int WEST = MarchingSquaresTracer.WEST;
+    private static final int SOUTH = MarchingSquaresTracer.SOUTH;
+
+    private final ImageReader reader;
+    private final int threshold;
+    private final int bandHeight;
+    private final ProgressThrottle progress;
+    private final int width;
+    private final int height;
+
+    //piece of outline on the vertical edge between the current line of corners and the next one down, for each column
+    private final Fragment[] vertical;
+    //piece of outline on the horizontal edge to the right of the last corner walked
+    private Fragment horizontal;
+    private ArrayList<IntContour> outlines = new ArrayList<IntContour>();
+    private ArrayList<IntContour> holeOutlines = new ArrayList<IntContour>();
+
+    /**
+     * Prepare to trace the first image of a reader
+     *
+     * @param reader Reader with its input already set, seekable so that each band can be read in turn
+     * @param threshold Alpha a pixel must be above to be part of a shape
+     * @param bandHeight Number of rows decoded at a time
+     * @param progress Throttle that progress is reported through
+     * @throws IOException if the size of the image can't be read
+     */
+    public StreamingTracer(ImageReader reader, int threshold, int bandHeight, ProgressThrottle progress) throws IOException
+    {
+        this.reader = reader;
+        this.threshold = threshold;
+        this.bandHeight = Math.max(1, bandHeight);
+        this.progress = progress;
+        width = reader.getWidth(0);
+        height = reader.getHeight(0);
+        vertical = new Fragment[width + 1];
+    }
+
+    /**
+     * Read the image band by band and trace every outline in it
+     *
+     * @param checkHoles Determines if holes are kept
+     * @return Every shape in the image with its holes, largest first, in the same coordinates as the other tracers
+     * @throws IOException if a band of the image can't be read
+     */
+    public ArrayList<TracedShape> trace(boolean checkHoles) throws IOException
+    {
+        for(int y0 = 0; y0 < height; y0 += bandHeight)
+        {
+            int y1 = Math.min(height, y0 + bandHeight);
+
+            //each band also reads the last row of the band before it, so that the lines of corners along the seam can be walked
+            int top = Math.max(0, y0 - 1);
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceRegion(new Rectangle(0, top, width, y1 - top));
+            BufferedImage band = reader.read(0, param);
+            PixelMask rows = PixelMask.fromImage(band, threshold);
+            band = null;
+
+            for(int i = y0; i < y1; i++)
+            {
+                walkLine(rows, i - top, height - i);
+            }
+            if(y1 == height)
+            {
+                //the bottom edge of the image, below which the mask is empty
+                walkLine(rows, height - top, 0);
+            }
+            progress.progress("Traced rows " + y0 + " to " + y1 + " of " + height);
+        }
+
+        ArrayList<TracedShape> shapes = new ArrayList<TracedShape>();
+        for(IntContour outline : outlines)
+        {
+            shapes.add(new TracedShape(outline, new ArrayList<Contour>()));
+        }
+
+        //largest shapes first
+        Collections.sort(shapes, new Comparator<TracedShape>()
+        {
+            @Override
+            public int compare(TracedShape s1, TracedShape s2)
+            {
+                return Double.compare(s2.getPoints().area(), s1.getPoints().area());
+            }
+        });
+
+        if(checkHoles)
+        {
+            for(IntContour hole : holeOutlines)
+            {
+                TracedShape parent = findParent(shapes, hole);
+                if(parent != null)
+                {
+                    parent.getHoles().add(hole);
+                }
+            }
+        }
+        return shapes;
+    }
+
+    /**
+     * Walk every corner along the line between two rows of the image, joining each corner's edges onto the outlines passing through it
+     *
+     * @param rows Mask of the band being read, row 0 being the top row of the band
+     * @param below Row of the band below the line, the row above it being the one before
+     * @param line Y coordinate of the line, counting up from the bottom of the image
+     */
+    private void walkLine(PixelMask rows, int below, int line)
+    {
+        int above = below - 1;
+        horizontal = null;
+        for(int x = 0; x <= width; x++)
+        {
+            boolean nw = rows.get(x - 1, above);
+            boolean ne = rows.get(x, above);
+            boolean sw = rows.get(x - 1, below);
+            boolean se = rows.get(x, below);
+
+            int code = (sw ? 1 : 0) | (se ? 2 : 0) | (nw ? 4 : 0) | (ne ? 8 : 0);
+            if(code == 0 || code == 15)
+            {
+                continue;
+            }
+
+            //direction each edge around the corner is travelled in with the shape on its left, or -1 if there is no edge
+            int up = nw == ne ? -1 : (nw ? NORTH : SOUTH);
+            int down = sw == se ? -1 : (sw ? NORTH : SOUTH);
+            int left = nw == sw ? -1 : (sw ? WEST : EAST);
+            int right = ne == se ? -1 : (se ? WEST : EAST);
+
+            //edges above and to the left were reached from corners already walked, the ones below and to the right are new
+            Fragment upFragment = vertical[x];
+            Fragment leftFragment = horizontal;
+            Fragment downFragment = null;
+            Fragment rightFragment = null;
+
+            //the corner has one edge in and one edge out, or two of each on a diagonal
+            //an edge comes in travelling south from above, north from below, east from the left or west from the right
+            for(int in = 0; in < 4; in++)
+            {
+                if(in != (in == SOUTH ? up : in == NORTH ? down : in == EAST ? left : right))
+                {
+                    continue;
+                }
+                int out = MarchingSquaresTracer.next(code, in);
+
+                Fragment inFragment = in == SOUTH ? upFragment : (in == EAST ? leftFragment : null);
+                Fragment outFragment = out == NORTH ? upFragment : (out == WEST ? leftFragment : null);
+                //the outline only gets a vertex where it turns
+                Fragment joined = join(inFragment, outFragment, out != in, x, line);
+                if(in == NORTH)
+                {
+                    downFragment = joined;
+                }
+                else if(in == WEST)
+                {
+                    rightFragment = joined;
+                }
+                if(out == SOUTH)
+                {
+                    downFragment = joined;
+                }
+                else if(out == EAST)
+                {
+                    rightFragment = joined;
+                }
+            }
+            vertical[x] = downFragment;
+            horizontal = rightFragment;
+        }
+    }
+
+    /**
+     * Join the outline coming into a corner with the outline leaving it
+     *
+     * @param in Piece of outline ending at the corner, or null if the edge coming in hasn't been reached yet
+     * @param out Piece of outline starting at the corner, or null if the edge going out hasn't been reached yet
+     * @param turns Determines if the outline turns at the corner, in which case the corner becomes a vertex
+     * @param x coordinate of the corner along X
+     * @param y coordinate of the corner along Y
+     * @return Piece of outline now passing through the corner, or null if the outline was closed
+     */
+    private Fragment join(Fragment in, Fragment out, boolean turns, int x, int y)
+    {
+        if(in == null && out == null)
+        {
+            Fragment fragment = new Fragment();
+            if(turns)
+            {
+                fragment.back.add(x, y);
+            }
+            return fragment;
+        }
+        if(out == null)
+        {
+            in = in.resolve();
+            if(turns)
+            {
+                in.back.add(x, y);
+            }
+            return in;
+        }
+        if(in == null)
+        {
+            out = out.resolve();
+            if(turns)
+            {
+                out.front.add(x, y);
+            }
+            return out;
+        }
+
+        in = in.resolve();
+        out = out.resolve();
+        if(turns)
+        {
+            in.back.add(x, y);
+        }
+        if(in == out)
+        {
+            close(in);
+            return null;
+        }
+
+        //copy the shorter piece onto the longer one
+        if(in.size() >= out.size())
+        {
+            in.back.addAllReversed(out.front);
+            in.back.addAll(out.back);
+            out.release(in);
+            return in;
+        }
+        //going backwards through the piece coming in, each vertex goes on the front of the piece going out
+        out.front.addAllReversed(in.back);
+        out.front.addAll(in.front);
+        in.release(out);
+        return out;
+    }
+
+    /**
+     * File away an outline that has been joined back up with itself
+     *
+     * @param fragment Piece of outline whose two ends have met
+     */
+    private void close(Fragment fragment)
+    {
+        IntContour outline = new IntContour(fragment.size());
+        outline.addAllReversed(fragment.front);
+        outline.addAll(fragment.back);
+        fragment.release(null);
+        if(outline.area() > 0)
+        {
+            outlines.add(outline);
+        }
+        else
+        {
+            holeOutlines.add(outline);
+        }
+    }
+
+    /**
+     * Find the smallest shape that a hole lies within
+     *
+     * @param shapes Every shape traced, largest first
+     * @param hole Outline of the hole
+     * @return Shape the hole was cut out of, or null if none was found
+     */
+    private static TracedShape findParent(ArrayList<TracedShape> shapes, IntContour hole)
+    {
+        //a point just inside the shape pixel beside the hole's first edge, which never lies on a pixel edge itself
+        float dx = Math.signum(hole.getX(1) - hole.getX(0));
+        float dy = Math.signum(hole.getY(1) - hole.getY(0));
+        float px = hole.getX(0) + (dx * 0.5f) - (dy * 0.25f);
+        float py = hole.getY(0) + (dy * 0.5f) + (dx * 0.25f);
+
+        for(int i = shapes.size() - 1; i >= 0; i--)
+        {
+            if(shapes.get(i).getPoints().contains(px, py))
+            {
+                return shapes.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Piece of an outline that is still open at both ends
+     * Vertices added to its front are kept in their own contour in reverse, so both ends grow without shifting anything.
+     * Once copied onto another piece it forwards to that piece, since the frontier may still hold it
+     */
+    private static class Fragment
+    {
+        //vertices before the piece's first corner, last added first
+        private IntContour front = new IntContour();
+        //the piece's first corner and every vertex after it, in order
+        private IntContour back = new IntContour();
+        private Fragment into;
+
+        /**
+         * Get the number of vertices in the piece
+         *
+         * @return Number of vertices
+         */
+        int size()
+        {
+            return front.size() + back.size();
+        }
+
+        /**
+         * Let go of the piece's vertices once they have been copied elsewhere
+         *
+         * @param into Piece now holding the vertices, or null if the outline was closed
+         */
+        void release(Fragment into)
+        {
+            front = null;
+            back = null;
+            this.into = into;
+        }
+
+        /**
+         * Follow the pieces this one was copied onto
+         *
+         * @return Piece now holding this piece's vertices
+         */
+        Fragment resolve()
+        {
+            Fragment fragment = this;
+            while(fragment.into != null)
+            {
+                fragment = fragment.into;
+            }
+            return fragment;
+        }
+    }
+}
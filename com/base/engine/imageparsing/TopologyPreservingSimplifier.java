@@ -0,0 +1,373 @@
+package com.base.engine.imageparsing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Simplifies the outline of a shape and all of its holes together, removing vertices by the area they add as the Visvalingam-Whyatt algorithm does,
+ * but never removing a vertex if the segment joining its neighbours would touch another segment of any loop or pass over another vertex.
+ * Every loop stays simple and every hole stays inside the outline and apart from the other holes, so the result can always be triangulated.
+ *
+ * The segments of every loop are kept in a uniform grid so that each removal is only checked against the segments around it.
+ * A vertex that can't be removed is set aside until one of its neighbours is removed and its area changes
+ *
+ * @author Jordan
+ */
+public final class TopologyPreservingSimplifier
+{
+    //a loop can't be simplified below a triangle
+    private static final int MIN_VERTICES = 3;
+
+    private final float tolerance;
+
+    //every vertex of every loop, each loop's vertices following on from the last loop's
+    private float[] xs;
+    private float[] ys;
+    private int[] previous;
+    private int[] next;
+    private SegmentGrid grid;
+
+    /**
+     * Declare the limit of the simplification
+     *
+     * @param tolerance Vertices adding less area than this are removed, in square pixels
+     */
+    public TopologyPreservingSimplifier(float tolerance)
+    {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Simplify a set of closed loops, keeping the remaining vertices of each in their original order
+     * Not safe to share between threads, since the loops being simplified are held until it returns
+     *
+     * @param loops Outline of the shape followed by its holes, the last vertex of each joining back onto the first
+     * @return Simplified loops, in the same order
+     */
+    public ArrayList<FloatContour> simplify(List<Contour> loops)
+    {
+        int total = 0;
+        for(Contour loop : loops)
+        {
+            total += loop.size();
+        }
+        xs = new float[total];
+        ys = new float[total];
+        previous = new int[total];
+        next = new int[total];
+        int[] loopOf = new int[total];
+        int[] remaining = new int[loops.size()];
+
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        int first = 0;
+        for(int l = 0; l < loops.size(); l++)
+        {
+            Contour loop = loops.get(l);
+            int size = loop.size();
+            remaining[l] = size;
+            for(int i = 0; i < size; i++)
+            {
+                int vertex = first + i;
+                xs[vertex] = loop.getX(i);
+                ys[vertex] = loop.getY(i);
+                previous[vertex] = i == 0 ? first + size - 1 : vertex - 1;
+                next[vertex] = i == size - 1 ? first : vertex + 1;
+                loopOf[vertex] = l;
+                minX = Math.min(minX, xs[vertex]);
+                minY = Math.min(minY, ys[vertex]);
+                maxX = Math.max(maxX, xs[vertex]);
+                maxY = Math.max(maxY, ys[vertex]);
+            }
+            first += size;
+        }
+
+        boolean[] removed = new boolean[total];
+        if(total > 0)
+        {
+            grid = new SegmentGrid(minX, minY, maxX, maxY, total);
+            double[] areas = new double[total];
+            for(int i = 0; i < total; i++)
+            {
+                grid.add(i, xs[i], ys[i], xs[next[i]], ys[next[i]]);
+                areas[i] = remaining[loopOf[i]] > MIN_VERTICES ? area(i) : Double.POSITIVE_INFINITY;
+            }
+            reduce(areas, removed, loopOf, remaining);
+        }
+
+        ArrayList<FloatContour> simplified = new ArrayList<FloatContour>(loops.size());
+        first = 0;
+        for(int l = 0; l < loops.size(); l++)
+        {
+            int size = loops.get(l).size();
+            FloatContour loop = new FloatContour(remaining[l]);
+            for(int i = first; i < first + size; i++)
+            {
+                if(!removed[i])
+                {
+                    loop.add(xs[i], ys[i]);
+                }
+            }
+            simplified.add(loop);
+            first += size;
+        }
+        xs = null;
+        ys = null;
+        previous = null;
+        next = null;
+        grid = null;
+        return simplified;
+    }
+
+    /**
+     * Remove vertices from the smallest area up for as long as they add less than the tolerance
+     * Vertices that can't be removed, and those of loops already down to a triangle, are held at an infinite area
+     *
+     * @param areas Area each vertex adds
+     * @param removed Vertices removed so far
+     * @param loopOf Loop each vertex belongs to
+     * @param remaining Number of vertices left in each loop
+     */
+    private void reduce(double[] areas, boolean[] removed, int[] loopOf, int[] remaining)
+    {
+        AreaHeap heap = new AreaHeap(areas);
+        //a vertex can never be worth less than one removed before it, or it would have gone first
+        double removedArea = 0;
+        while(true)
+        {
+            int i = heap.peek();
+            if(areas[i] >= tolerance)
+            {
+                return;
+            }
+            if(!canRemove(i))
+            {
+                areas[i] = Double.POSITIVE_INFINITY;
+                heap.update(i);
+                continue;
+            }
+            heap.poll();
+            removed[i] = true;
+            removedArea = Math.max(removedArea, areas[i]);
+
+            //swap the two segments either side of the vertex for one joining its neighbours
+            int before = previous[i];
+            int after = next[i];
+            grid.remove(before, xs[before], ys[before], xs[i], ys[i]);
+            grid.remove(i, xs[i], ys[i], xs[after], ys[after]);
+            next[before] = after;
+            previous[after] = before;
+            grid.add(before, xs[before], ys[before], xs[after], ys[after]);
+
+            int loop = loopOf[i];
+            remaining[loop]--;
+            if(remaining[loop] > MIN_VERTICES)
+            {
+                areas[before] = Math.max(removedArea, area(before));
+                areas[after] = Math.max(removedArea, area(after));
+            }
+            else
+            {
+                areas[before] = Double.POSITIVE_INFINITY;
+                areas[after] = Double.POSITIVE_INFINITY;
+                areas[next[after]] = Double.POSITIVE_INFINITY;
+                heap.update(next[after]);
+            }
+            heap.update(before);
+            heap.update(after);
+        }
+    }
+
+    /**
+     * Determine if a vertex can be removed without the segment joining its neighbours touching any other segment,
+     * and without any other vertex lying inside the triangle the removal cuts off
+     *
+     * @param i Vertex to remove
+     * @return determines if the vertex can be removed
+     */
+    private boolean canRemove(int i)
+    {
+        int before = previous[i];
+        int after = next[i];
+        float ax = xs[before];
+        float ay = ys[before];
+        float bx = xs[after];
+        float by = ys[after];
+        float vx = xs[i];
+        float vy = ys[i];
+
+        //any segment the new one would touch is listed in a cell along it
+        int row1 = grid.lastRow(Math.max(ay, by));
+        for(int row = grid.firstRow(Math.min(ay, by)); row <= row1; row++)
+        {
+            int column1 = grid.lastColumn(grid.spanEnd(row, ax, ay, bx, by));
+            for(int column = grid.firstColumn(grid.spanStart(row, ax, ay, bx, by)); column <= column1; column++)
+            {
+                for(int c = 0; c < grid.getCount(column, row); c++)
+                {
+                    int s = grid.getSegment(column, row, c);
+                    if(s == before || s == i)
+                    {
+                        //these are the segments being replaced
+                        continue;
+                    }
+                    int e = next[s];
+                    float sx = xs[s];
+                    float sy = ys[s];
+                    float ex = xs[e];
+                    float ey = ys[e];
+                    if(s == after)
+                    {
+                        //shares its start with the new segment's end, so it can only go wrong by doubling back along it
+                        if(onSegment(ax, ay, bx, by, ex, ey) || onSegment(sx, sy, ex, ey, ax, ay))
+                        {
+                            return false;
+                        }
+                    }
+                    else if(e == before)
+                    {
+                        if(onSegment(ax, ay, bx, by, sx, sy) || onSegment(sx, sy, ex, ey, bx, by))
+                        {
+                            return false;
+                        }
+                    }
+                    else if(intersects(ax, ay, bx, by, sx, sy, ex, ey))
+                    {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        //a flat triangle cuts nothing off, so checking the new segment was enough
+        if(orientation(ax, ay, vx, vy, bx, by) == 0)
+        {
+            return true;
+        }
+
+        //every vertex starts a segment listed in the cell holding it, so only the cells the triangle covers need reading
+        row1 = grid.lastRow(Math.max(Math.max(ay, by), vy));
+        for(int row = grid.firstRow(Math.min(Math.min(ay, by), vy)); row <= row1; row++)
+        {
+            float start = Math.min(Math.min(grid.spanStart(row, ax, ay, vx, vy), grid.spanStart(row, vx, vy, bx, by)), grid.spanStart(row, bx, by, ax, ay));
+            float end = Math.max(Math.max(grid.spanEnd(row, ax, ay, vx, vy), grid.spanEnd(row, vx, vy, bx, by)), grid.spanEnd(row, bx, by, ax, ay));
+            int column1 = grid.lastColumn(end);
+            for(int column = grid.firstColumn(start); column <= column1; column++)
+            {
+                for(int c = 0; c < grid.getCount(column, row); c++)
+                {
+                    //the segments starting on the triangle's own corners can be skipped
+                    int s = grid.getSegment(column, row, c);
+                    if(s != before && s != i && s != after && inTriangle(ax, ay, vx, vy, bx, by, xs[s], ys[s]))
+                    {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the area of the triangle a vertex makes with its neighbours
+     *
+     * @param i Index of the vertex
+     * @return Area of the triangle
+     */
+    private double area(int i)
+    {
+        return Math.abs(orientation(xs[previous[i]], ys[previous[i]], xs[i], ys[i], xs[next[i]], ys[next[i]])) / 2.0;
+    }
+
+    /**
+     * Get twice the signed area of a triangle, positive when its corners run anticlockwise
+     * Pixel coordinates are small enough that this is exact in double precision
+     *
+     * @param ax coordinate of the first corner along X
+     * @param ay coordinate of the first corner along Y
+     * @param bx coordinate of the second corner along X
+     * @param by coordinate of the second corner along Y
+     * @param cx coordinate of the third corner along X
+     * @param cy coordinate of the third corner along Y
+     * @return Twice the signed area
+     */
+    private static double orientation(double ax, double ay, double bx, double by, double cx, double cy)
+    {
+        return ((bx - ax) * (cy - ay)) - ((by - ay) * (cx - ax));
+    }
+
+    /**
+     * Determine if a point lies on a segment, including its ends
+     *
+     * @param ax coordinate of the segment's start along X
+     * @param ay coordinate of the segment's start along Y
+     * @param bx coordinate of the segment's end along X
+     * @param by coordinate of the segment's end along Y
+     * @param px coordinate of the point along X
+     * @param py coordinate of the point along Y
+     * @return determines if the point is on the segment
+     */
+    private static boolean onSegment(float ax, float ay, float bx, float by, float px, float py)
+    {
+        return orientation(ax, ay, bx, by, px, py) == 0
+                && px >= Math.min(ax, bx) && px <= Math.max(ax, bx)
+                && py >= Math.min(ay, by) && py <= Math.max(ay, by);
+    }
+
+    /**
+     * Determine if two segments touch anywhere, including at their ends
+     *
+     * @param ax coordinate of the first segment's start along X
+     * @param ay coordinate of the first segment's start along Y
+     * @param bx coordinate of the first segment's end along X
+     * @param by coordinate of the first segment's end along Y
+     * @param cx coordinate of the second segment's start along X
+     * @param cy coordinate of the second segment's start along Y
+     * @param dx coordinate of the second segment's end along X
+     * @param dy coordinate of the second segment's end along Y
+     * @return determines if the segments touch
+     */
+    private static boolean intersects(float ax, float ay, float bx, float by, float cx, float cy, float dx, float dy)
+    {
+        double c = orientation(ax, ay, bx, by, cx, cy);
+        double d = orientation(ax, ay, bx, by, dx, dy);
+        double a = orientation(cx, cy, dx, dy, ax, ay);
+        double b = orientation(cx, cy, dx, dy, bx, by);
+        if(((c > 0 && d < 0) || (c < 0 && d > 0)) && ((a > 0 && b < 0) || (a < 0 && b > 0)))
+        {
+            return true;
+        }
+        return onSegment(ax, ay, bx, by, cx, cy) || onSegment(ax, ay, bx, by, dx, dy)
+                || onSegment(cx, cy, dx, dy, ax, ay) || onSegment(cx, cy, dx, dy, bx, by);
+    }
+
+    /**
+     * Determine if a point lies inside a triangle or on its edges, other than on one of its corners
+     * A point on a corner belongs to a loop touching the shape there, which removing the vertex doesn't move across
+     *
+     * @param ax coordinate of the first corner along X
+     * @param ay coordinate of the first corner along Y
+     * @param bx coordinate of the second corner along X
+     * @param by coordinate of the second corner along Y
+     * @param cx coordinate of the third corner along X
+     * @param cy coordinate of the third corner along Y
+     * @param px coordinate of the point along X
+     * @param py coordinate of the point along Y
+     * @return determines if the point is in the triangle
+     */
+    private static boolean inTriangle(float ax, float ay, float bx, float by, float cx, float cy, float px, float py)
+    {
+        if((px == ax && py == ay) || (px == bx && py == by) || (px == cx && py == cy))
+        {
+            return false;
+        }
+        double ab = orientation(ax, ay, bx, by, px, py);
+        double bc = orientation(bx, by, cx, cy, px, py);
+        double ca = orientation(cx, cy, ax, ay, px, py);
+        boolean negative = ab < 0 || bc < 0 || ca < 0;
+        boolean positive = ab > 0 || bc > 0 || ca > 0;
+        return !(negative && positive);
+    }
+}
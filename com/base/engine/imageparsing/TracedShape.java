@@ -0,0 +1,46 @@
+package com.base.engine.imageparsing;
+
+import java.util.ArrayList;
+
+/**
+ * Outline and holes of a single shape traced from an image
+ *
+ * @author Jordan
+ */
+public class TracedShape
+{
+    private Contour points;
+    private ArrayList<Contour> holes;
+
+    /**
+     * Declare a traced shape
+     *
+     * @param points Vertices of the shape's outline
+     * @param holes Outlines of the holes in the shape
+     */
+    public TracedShape(Contour points, ArrayList<Contour> holes)
+    {
+        this.points = points;
+        this.holes = holes;
+    }
+
+    /**
+     * Get the vertices of the shape's outline
+     *
+     * @return Contour of the shape's outline
+     */
+    public Contour getPoints()
+    {
+        return points;
+    }
+
+    /**
+     * Get the holes in the shape
+     *
+     * @return List of the outlines of the holes in the shape
+     */
+    public ArrayList<Contour> getHoles()
+    {
+        return holes;
+    }
+}
@@ -0,0 +1,117 @@
+package com.base.engine.imageparsing;
+
+/**
+ * Simplifies closed loops with the Visvalingam-Whyatt algorithm, repeatedly removing the vertex that adds the least area to the loop
+ * The area a vertex adds is the triangle it makes with the vertices either side of it. Each vertex is kept in an indexed min-heap by that area,
+ * so removing a vertex and updating the two neighbours whose triangles change costs O(log n), and the whole loop O(n log n).
+ * Vertices stop being removed once the smallest area left reaches the tolerance, or once the loop is down to its vertex budget
+ *
+ * @author Jordan
+ */
+public final class VisvalingamSimplifier
+{
+    //a loop can't be simplified below a triangle
+    private static final int MIN_VERTICES = 3;
+
+    private final float tolerance;
+    private final int maxVertices;
+
+    /**
+     * Declare the limits of the simplification
+     *
+     * @param tolerance Vertices adding less area than this are removed, in square pixels
+     * @param maxVertices Greatest number of vertices to keep whatever their area, or 0 for no budget
+     */
+    public VisvalingamSimplifier(float tolerance, int maxVertices)
+    {
+        this.tolerance = tolerance;
+        this.maxVertices = maxVertices;
+    }
+
+    /**
+     * Simplify a closed loop, keeping its remaining vertices in their original order
+     *
+     * @param loop Vertices of the loop, the last joining back onto the first
+     * @return Simplified loop
+     */
+    public FloatContour simplify(Contour loop)
+    {
+        int size = loop.size();
+        FloatContour simplified = new FloatContour(size);
+        if(size <= MIN_VERTICES)
+        {
+            for(int i = 0; i < size; i++)
+            {
+                simplified.add(loop, i);
+            }
+            return simplified;
+        }
+
+        int[] previous = new int[size];
+        int[] next = new int[size];
+        double[] areas = new double[size];
+        for(int i = 0; i < size; i++)
+        {
+            previous[i] = i == 0 ? size - 1 : i - 1;
+            next[i] = i == size - 1 ? 0 : i + 1;
+        }
+        for(int i = 0; i < size; i++)
+        {
+            areas[i] = area(loop, previous[i], i, next[i]);
+        }
+
+        AreaHeap heap = new AreaHeap(areas);
+        boolean[] removed = new boolean[size];
+        int remaining = size;
+        //a vertex can never be worth less than one removed before it, or it would have gone first
+        double removedArea = 0;
+        while(remaining > MIN_VERTICES)
+        {
+            int i = heap.peek();
+            boolean overBudget = maxVertices > 0 && remaining > maxVertices;
+            if(!overBudget && areas[i] >= tolerance)
+            {
+                break;
+            }
+            heap.poll();
+            removed[i] = true;
+            remaining--;
+            removedArea = Math.max(removedArea, areas[i]);
+
+            //join the neighbours up and work out the area each of them now adds
+            int before = previous[i];
+            int after = next[i];
+            next[before] = after;
+            previous[after] = before;
+            areas[before] = Math.max(removedArea, area(loop, previous[before], before, after));
+            heap.update(before);
+            areas[after] = Math.max(removedArea, area(loop, before, after, next[after]));
+            heap.update(after);
+        }
+
+        for(int i = 0; i < size; i++)
+        {
+            if(!removed[i])
+            {
+                simplified.add(loop, i);
+            }
+        }
+        return simplified;
+    }
+
+    /**
+     * Get the area of the triangle made by three vertices of a loop
+     *
+     * @param loop Loop holding the vertices
+     * @param a Index of the first vertex
+     * @param b Index of the vertex in the middle
+     * @param c Index of the last vertex
+     * @return Area of the triangle
+     */
+    private static double area(Contour loop, int a, int b, int c)
+    {
+        double ax = loop.getX(a);
+        double ay = loop.getY(a);
+        return Math.abs(((loop.getX(b) - ax) * (loop.getY(c) - ay)) - ((loop.getX(c) - ax) * (loop.getY(b) - ay))) / 2.0;
+    }
+}
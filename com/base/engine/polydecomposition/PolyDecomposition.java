@@ -1,5 +1,6 @@
 package com.base.engine.polydecomposition;
 
+import com.base.engine.ProgressListener;
 import com.base.engine.polydecomposition.polygon.TriangulatablePolygon;
 import com.base.engine.polydecomposition.triangulation.TriangulationContext;
 import com.base.engine.polydecomposition.triangulation.delaunay.sweep.Sweep;
@@ -18,9 +19,21 @@ public class PolyDecomposition
      * @param poly Polygon we will attempt to triangulate
      */
     public static void triangulate(TriangulatablePolygon poly)
+    {
+        triangulate(poly, null);
+    }
+
+    /**
+     * Wrapper for the triangulate method, telling a listener of the triangulation's progress
+     * 
+     * @param poly Polygon we will attempt to triangulate
+     * @param listener Listener told of the triangulation's progress, or null if nobody is listening
+     */
+    public static void triangulate(TriangulatablePolygon poly, ProgressListener listener)
     {
         TriangulationContext context;          
         context = createContext();
+        context.setProgressListener(listener);
         context.prepareTriangulation(poly);
         Sweep.triangulate((SweepContext)context);           
     }
@@ -1,5 +1,7 @@
 package com.base.engine.polydecomposition.triangulation;
 
+import com.base.engine.ProgressListener;
+import com.base.engine.ProgressThrottle;
 import com.base.engine.polydecomposition.triangulation.delaunay.DelaunayTriangle;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,6 +17,7 @@ public abstract class TriangulationContext
 
     protected ArrayList<TriangulationVec> vectors = new ArrayList<>(200);
     protected Triangulatable triangle;
+    protected ProgressThrottle progress = new ProgressThrottle(null);
    
     /**
      * Prepare for triangulation
@@ -83,4 +86,24 @@ public abstract class TriangulationContext
     {
         this.vectors.addAll(vectors);
     }
+   
+    /**
+     * Set the listener told of the triangulation's progress
+     * 
+     * @param listener Progress listener, or null if nobody is listening
+     */
+    public void setProgressListener(ProgressListener listener)
+    {
+        progress = new ProgressThrottle(listener);
+    }
+   
+    /**
+     * Get the throttle that progress of the triangulation is reported through
+     * 
+     * @return Progress throttle of the context
+     */
+    public ProgressThrottle getProgress()
+    {
+        return progress;
+    }
 }
@@ -1,10 +1,10 @@
 package com.base.engine.polydecomposition.triangulation.delaunay.sweep;
 
+import com.base.engine.ProgressThrottle;
 import com.base.engine.polydecomposition.triangulation.TriangulationVec;
 import com.base.engine.polydecomposition.triangulation.TriangulationUtil;
 import com.base.engine.polydecomposition.triangulation.TriangulationUtil.Orientation;
 import com.base.engine.polydecomposition.triangulation.delaunay.DelaunayTriangle;
-import com.base.simulation.GUI;
 import java.util.List;
 
 /**
@@ -24,6 +24,7 @@ public class Sweep
         sweepContext.createAdvancingFront();
         sweep(sweepContext);
         finalizationPolygon(sweepContext);
+        sweepContext.getProgress().flush();
     }
 
     /**
@@ -33,7 +34,8 @@ public class Sweep
      */
     private static void sweep(SweepContext sweepContext)
     {
-        GUI.txtOutput.setText("Begin triangulation sweep");
+        ProgressThrottle progress = sweepContext.getProgress();
+        progress.progress("Begin triangulation sweep");
         List<TriangulationVec> vectors;
         TriangulationVec vector;
         SweepingFrontNode node;
@@ -43,6 +45,10 @@ public class Sweep
         for(int i = 1; i < vectors.size(); i++)
         {
             vector = vectors.get(i);
+            if(progress.isDue())
+            {
+                progress.progress("Sweeping point " + i + " of " + vectors.size());
+            }
 
             node = pointEvent(sweepContext, vector);
 
@@ -63,7 +69,7 @@ public class Sweep
      */
     private static void finalizationPolygon(SweepContext sweepContext)
     {
-        GUI.txtOutput.setText("Finalize triangulated polygon");
+        sweepContext.getProgress().progress("Finalize triangulated polygon");
         //Get an Internal triangle to start with
         DelaunayTriangle tri = sweepContext.aFront.head.next.triangle;
         TriangulationVec vector = sweepContext.aFront.head.next.vector;
@@ -6,7 +6,6 @@ import com.base.engine.polydecomposition.triangulation.TriangulationContext;
 import com.base.engine.polydecomposition.triangulation.TriangulationVec;
 import com.base.engine.polydecomposition.triangulation.delaunay.DelaunayTriangle;
 import com.base.engine.polydecomposition.triangulation.pointcoords.VectorCoords;
-import com.base.simulation.GUI;
 import java.util.Collections;
 
 /**
@@ -161,7 +160,7 @@ public class SweepContext extends TriangulationContext
         middle.next = aFront.tail;
         middle.prev = aFront.head;
         aFront.tail.prev = middle;
-        GUI.txtOutput.setText("Setup advancing front for triangulation");
+        progress.progress("Setup advancing front for triangulation");
     }
    
     /**
@@ -244,7 +243,7 @@ public class SweepContext extends TriangulationContext
         setTail(vector2);
 
         Collections.sort(vectors, comparator);
-        GUI.txtOutput.setText("Triangulation boundaries calculated");
+        progress.progress("Triangulation boundaries calculated");
     }
     
     /**
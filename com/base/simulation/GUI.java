@@ -1,5 +1,12 @@
 package com.base.simulation;
 
+import com.base.engine.ProgressListener;
+import com.base.engine.imageparsing.ContourSimplifier;
+import com.base.engine.imageparsing.ContourTracer;
+import com.base.engine.imageparsing.MarchingSquaresTracer;
+import com.base.engine.imageparsing.ParseOptions;
+import com.base.engine.imageparsing.SimplifierConfig;
+import com.base.engine.imageparsing.SimplifierRegistry;
 import com.base.simulation.worldobjects.VectorObject;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
@@ -23,6 +30,7 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
 import javax.swing.filechooser.*;
 
 /**
@@ -32,24 +40,35 @@ import javax.swing.filechooser.*;
  */
 public class GUI implements ActionListener, ItemListener
 {    
-    public static int RAMER_SIMPLIFIER = 0;
-    public static int CIRCLE_SIMPLIFIER = 1;
-    public static int FLEXIBLE_SIMPLIFIER = 2;
-    public static int ORIG_SIMPLIFIER = 3;
-    public static int NO_SIMPLIFIER = 4;
-            
-    public static boolean showPoints, checkHoles, doubleBuffer, showSprite;
-    public static int selectedSimplifier, average;
+    public static boolean showPoints, checkHoles, halfPixel, marchingSquares, showSprite, parallelContours;
+    public static ContourSimplifier selectedSimplifier;
+    public static int average, maxVertices;
     public static float limit;
     
     private String filePath;
     private JPanel addPanel, cmbPanel, paraPanel, btnPanel, outPanel, renderPanel;
     private JButton btnAdd, btnTest, btnSave, btnRender;
-    private JTextField txtAdd, txtLimit, txtAverage;
+    private JTextField txtAdd, txtLimit, txtAverage, txtVertices;
     public static JTextField txtOutput;
-    private JLabel lblSimplify, lblLimit, lblAverage, lblSpace, lblHoleSpace, lblBufferSpace;
+    //the pipeline runs on the simulation's thread, so its progress is handed over to the event dispatch thread
+    private static final ProgressListener progressListener = new ProgressListener()
+    {
+        @Override
+        public void progress(final String message)
+        {
+            SwingUtilities.invokeLater(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    txtOutput.setText(message);
+                }
+            });
+        }
+    };
+    private JLabel lblSimplify, lblLimit, lblAverage, lblVertices, lblSpace, lblVertexSpace, lblHoleSpace, lblHalfPixelSpace;
     private JComboBox cmbSimplify;
-    private JCheckBox chkHoles, chkBuffer, chkPoints;
+    private JCheckBox chkHoles, chkHalfPixel, chkMarching, chkPoints, chkParallel;
     
     /**
      * Initialise the GUI
@@ -60,10 +79,13 @@ public class GUI implements ActionListener, ItemListener
     {
         showPoints = false;
         checkHoles = true;
-        doubleBuffer = false;
+        halfPixel = false;
+        marchingSquares = false;
         showSprite = true;
-        selectedSimplifier = 0;
+        parallelContours = false;
+        selectedSimplifier = SimplifierRegistry.get(ParseOptions.RAMER_SIMPLIFIER);
         average = 2;
+        maxVertices = 0;
         limit = 0.2f;
         
         filePath = "";
@@ -96,11 +118,10 @@ public class GUI implements ActionListener, ItemListener
         lblSimplify = new JLabel("Simplifier: ");
 
         cmbSimplify = new JComboBox();
-        cmbSimplify.addItem("Ramer-Douglas-Peucker");
-        cmbSimplify.addItem("Circle Algorithm");
-        cmbSimplify.addItem("Flexible Algorithm");
-        cmbSimplify.addItem("Original Algorithm");
-        cmbSimplify.addItem("None");
+        for(ContourSimplifier simplifier : SimplifierRegistry.getSimplifiers())
+        {
+            cmbSimplify.addItem(simplifier.getName());
+        }
         cmbSimplify.setMaximumSize(new Dimension(200, 100));
         cmbSimplify.addItemListener(this);
         
@@ -108,11 +129,11 @@ public class GUI implements ActionListener, ItemListener
         paraPanel = new JPanel();
         paraPanel.setLayout(new FlowLayout(FlowLayout.TRAILING));
         
-        chkBuffer = new JCheckBox("Double Buffer");
-        chkBuffer.setHorizontalTextPosition(SwingConstants.LEFT);
-        chkBuffer.addActionListener(this);
+        chkHalfPixel = new JCheckBox("Half Pixel");
+        chkHalfPixel.setHorizontalTextPosition(SwingConstants.LEFT);
+        chkHalfPixel.addActionListener(this);
         
-        lblBufferSpace = new JLabel("           ");
+        lblHalfPixelSpace = new JLabel("           ");
         
         lblLimit = new JLabel("Limit:");
         txtLimit = new JTextField();
@@ -130,10 +151,23 @@ public class GUI implements ActionListener, ItemListener
         txtAverage.setEditable(false);
         txtAverage.setEnabled(false);
         
+        //setup the textfield for specifying the most vertices the simplifier keeps, 0 for no limit
+        lblVertexSpace = new JLabel("   ");
+        lblVertices = new JLabel("Max Vertices:");
+        txtVertices = new JTextField();
+        txtVertices.setPreferredSize(new Dimension(50, 20));
+        txtVertices.setText("0");
+        txtVertices.setEditable(false);
+        txtVertices.setEnabled(false);
+        
         //setup testing and saving buttons
         btnPanel = new JPanel();
         btnPanel.setLayout(new FlowLayout(FlowLayout.TRAILING));
         
+        chkMarching = new JCheckBox("Marching Squares");
+        chkMarching.setHorizontalTextPosition(SwingConstants.LEFT);
+        chkMarching.addActionListener(this);
+        
         btnTest = new JButton("Test");
         btnTest.addActionListener(this);
         
@@ -156,6 +190,11 @@ public class GUI implements ActionListener, ItemListener
         chkPoints.setSelected(false);
         chkPoints.addActionListener(this);
         
+        chkParallel = new JCheckBox("Parallel Contours");
+        chkParallel.setHorizontalTextPosition(SwingConstants.LEFT);
+        chkParallel.setSelected(false);
+        chkParallel.addActionListener(this);
+        
         btnRender = new JButton("Toggle Renderer");
         btnRender.addActionListener(this);
         
@@ -170,16 +209,20 @@ public class GUI implements ActionListener, ItemListener
         cmbPanel.add(cmbSimplify);
         panel.add(cmbPanel);
         
-        paraPanel.add(chkBuffer);
-        paraPanel.add(lblBufferSpace);
+        paraPanel.add(chkHalfPixel);
+        paraPanel.add(lblHalfPixelSpace);
         paraPanel.add(lblLimit);
         paraPanel.add(txtLimit);
         paraPanel.add(lblSpace);
         paraPanel.add(lblAverage);
         paraPanel.add(txtAverage);
+        paraPanel.add(lblVertexSpace);
+        paraPanel.add(lblVertices);
+        paraPanel.add(txtVertices);
      
         panel.add(paraPanel);
         
+        btnPanel.add(chkMarching);
         btnPanel.add(btnTest);
         btnPanel.add(btnSave);
         panel.add(btnPanel);
@@ -187,6 +230,7 @@ public class GUI implements ActionListener, ItemListener
         outPanel.add(txtOutput);
         panel.add(outPanel);
         
+        renderPanel.add(chkParallel);
         renderPanel.add(chkPoints);
         renderPanel.add(btnRender);
         panel.add(renderPanel);
@@ -221,15 +265,37 @@ public class GUI implements ActionListener, ItemListener
                 checkHoles = false;
             }
         }
-        else if(e.getSource() == chkBuffer)
+        else if(e.getSource() == chkHalfPixel)
+        {
+            if(chkHalfPixel.isSelected())
+            {
+                halfPixel = true;
+            }
+            else
+            {
+                halfPixel = false;
+            }
+        }
+        else if(e.getSource() == chkMarching)
         {
-            if(chkBuffer.isSelected())
+            if(chkMarching.isSelected())
             {
-                doubleBuffer = true;
+                marchingSquares = true;
             }
             else
             {
-                doubleBuffer = false;
+                marchingSquares = false;
+            }
+        }
+        else if(e.getSource() == chkParallel)
+        {
+            if(chkParallel.isSelected())
+            {
+                parallelContours = true;
+            }
+            else
+            {
+                parallelContours = false;
             }
         }
         else if(e.getSource() == btnTest)
@@ -257,6 +323,16 @@ public class GUI implements ActionListener, ItemListener
                     average = 0;
                 }
                 
+                if(!txtVertices.getText().isEmpty())
+                {
+                    //store the vertex budget
+                    maxVertices = Integer.parseInt(txtVertices.getText());
+                }
+                else
+                {
+                    maxVertices = 0;
+                }
+                
                 Simulation.simulation.queueSpawns(filePath);
             }
             else
@@ -348,46 +424,47 @@ public class GUI implements ActionListener, ItemListener
     @Override
     public void itemStateChanged(ItemEvent e)
     {
-        if(e.getItem() == "Ramer-Douglas-Peucker")
-        {
-            txtLimit.setEditable(true);
-            txtLimit.setEnabled(true);
-            txtAverage.setEditable(false);
-            txtAverage.setEnabled(false);
-            selectedSimplifier = RAMER_SIMPLIFIER;
-        }
-        else if(e.getItem() == "Circle Algorithm")
+        ContourSimplifier simplifier = SimplifierRegistry.get((String)e.getItem());
+        if(simplifier != null)
         {
-            txtLimit.setEditable(true);
-            txtLimit.setEnabled(true);
-            txtAverage.setEditable(true);
-            txtAverage.setEnabled(true);
-            selectedSimplifier = CIRCLE_SIMPLIFIER;
+            //only the parameters the simplifier reads can be edited
+            txtLimit.setEditable(simplifier.usesLimit());
+            txtLimit.setEnabled(simplifier.usesLimit());
+            txtAverage.setEditable(simplifier.usesAverage());
+            txtAverage.setEnabled(simplifier.usesAverage());
+            txtVertices.setEditable(simplifier.usesMaxVertices());
+            txtVertices.setEnabled(simplifier.usesMaxVertices());
+            selectedSimplifier = simplifier;
         }
-        else if(e.getItem() == "Flexible Algorithm")
-        {
-            txtLimit.setEditable(true);
-            txtLimit.setEnabled(true);
-            txtAverage.setEditable(true);
-            txtAverage.setEnabled(true);
-            
-            selectedSimplifier = FLEXIBLE_SIMPLIFIER;
-        }
-        else if(e.getItem() == "Original Algorithm")
+    }
+    
+    /**
+     * Get the parser settings currently chosen in the GUI
+     * Half-pixel tracing is done by the marching squares tracer, so it takes over from it when both are chosen
+     * 
+     * @return Settings to parse an image with
+     */
+    public static ParseOptions getParseOptions()
+    {
+        ContourTracer tracer = null;
+        if(halfPixel)
         {
-            txtLimit.setEditable(true);
-            txtLimit.setEnabled(true);
-            txtAverage.setEditable(true);
-            txtAverage.setEnabled(true);
-            selectedSimplifier = ORIG_SIMPLIFIER;
+            tracer = new MarchingSquaresTracer(true);
         }
-        else if(e.getItem() == "None")
+        else if(marchingSquares)
         {
-            txtLimit.setEditable(false);
-            txtLimit.setEnabled(false);
-            txtAverage.setEditable(false);
-            txtAverage.setEnabled(false);
-            selectedSimplifier = NO_SIMPLIFIER;
+            tracer = new MarchingSquaresTracer();
         }
+        return new ParseOptions(checkHoles, ParseOptions.DEFAULT_ALPHA_THRESHOLD, selectedSimplifier, new SimplifierConfig(limit, average, maxVertices), tracer, progressListener);
+    }
+    
+    /**
+     * Get the listener that shows progress of the pipeline in the GUI's output box
+     * 
+     * @return Progress listener of the GUI
+     */
+    public static ProgressListener getProgressListener()
+    {
+        return progressListener;
     }
 }
\ No newline at end of file
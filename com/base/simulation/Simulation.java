@@ -123,7 +123,7 @@ public class Simulation
                 }
             }
             
-            //remove each object that is flagged for removal and its associated Box2d body
+            //remove each object that is flagged for removal, its associated Box2d body and its hold on its texture
             for(WorldObject wo : remove)                
             {
                 objects.remove(wo);
@@ -131,6 +131,7 @@ public class Simulation
                 {
                     wo.removeBody();
                 }
+                wo.releaseSprite();
             }     
             
             //spawns a queued object from the mouse's current position
@@ -216,6 +217,7 @@ public class Simulation
             if(go == target)                                                  
             {
                 objects.remove(go);                                             
+                go.releaseSprite();
             }
         }
     }
@@ -3,7 +3,11 @@ package com.base.simulation.worldobjects;
 import com.base.engine.jsonobjects.GsonShape;
 import com.base.engine.jsonobjects.GsonObject;
 import com.base.engine.WorldObject;
+import com.base.engine.ImageAsset;
+import com.base.engine.ProgressThrottle;
+import com.base.engine.imageparsing.Contour;
 import com.base.engine.imageparsing.ParseImage;
+import com.base.engine.imageparsing.TracedShape;
 import com.base.engine.Sprite;
 import com.base.engine.WorldScale;
 import com.base.engine.polydecomposition.PolyDecomposition;
@@ -13,11 +17,11 @@ import com.base.engine.polydecomposition.triangulation.delaunay.DelaunayTriangle
 import com.base.simulation.GUI;
 import com.base.simulation.Simulation;
 import com.google.gson.Gson;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import org.jbox2d.collision.shapes.PolygonShape;
 import org.jbox2d.common.Vec2;
 import org.jbox2d.dynamics.BodyDef;
@@ -55,228 +59,361 @@ public class VectorObject extends WorldObject
         bodyDef.type = BodyType.DYNAMIC;
         
         PolygonShape box = new PolygonShape();
+        ProgressThrottle progress = new ProgressThrottle(GUI.getProgressListener());
         
-        //parser algorithms are called here
-        ParseImage pi = new ParseImage(imgName);
-        ArrayList<Vec2> vertices = pi.getPoints();
-        vertices = pi.perfectPoints(vertices);
-        GUI.txtOutput.setText("Points repositioned to pixel perfection");
-        
-        //simplify the points
-        vertices = pi.simplifyMenu(vertices);
-        //remove duplicates from the list of points so that the triangulation doesn't crash
-        LinkedHashSet<Vec2> dupRemover = new LinkedHashSet<Vec2>(vertices);
-        ArrayList<Vec2> newVerts = new ArrayList<Vec2>(dupRemover);
-        GUI.txtOutput.setText("Duplicate points removed to avoid errors");
-        
-        ArrayList<PolygonVec> points = new ArrayList<PolygonVec>();
-        triangles = null;
-        for(Vec2 v : newVerts)
+        //decode the image once, the parser, the object's size and its texture all share it
+        ImageAsset asset;
+        try
         {
-            points.add(new PolygonVec(v.x, v.y));
+            asset = Simulation.getTextureLoader().loadAsset(imgName);
         }
-        if(points.size() < 3)
+        catch (IOException ex)
         {
+            System.out.println("Error: Image not found");
             return;
         }
-        //create a polygon object for triangulation
-        TriangulatablePolygon poly = new TriangulatablePolygon(points);     
-        GUI.txtOutput.setText("Overall polygon created");
-
-        //similar to the above code, for handling holes in the images being parsed
-        ArrayList<ArrayList<Vec2>> holes = pi.getHoles();
-        if(holes.size() > 0)
+        
+        //parser algorithms are called here
+        ParseImage pi = new ParseImage(asset.getImage(), GUI.getParseOptions());
+        
+        //every separate shape found in the image is triangulated on its own, then all of them become fixtures of the one body so they move with the sprite
+        ArrayList<TracedShape> tracedShapes = pi.getShapes();
+        ArrayList<TriangulatablePolygon> polygons = new ArrayList<>();
+        triangles = new ArrayList<>();
+        int dropped = 0;
+        for(int s = 0; s < tracedShapes.size(); s++)
         {
-            for(int i = 0; i < holes.size(); i++)
+            if(tracedShapes.get(s).getPoints() == null)
             {
-                System.out.println("i " + i);
-                ArrayList<Vec2> holeVertices = holes.get(i);
-                holeVertices = pi.perfectHoles(holeVertices);
-                LinkedHashSet<Vec2> holeDupRemover33 = new LinkedHashSet<>(holeVertices);
-                holeVertices = new ArrayList<>(holeDupRemover33);
-                GUI.txtOutput.setText("Points repositioned to pixel perfection");
-                
-                holeVertices = pi.simplifyMenu(holeVertices);
-                LinkedHashSet<Vec2> holeDupRemover = new LinkedHashSet<>(holeVertices);
-                ArrayList<Vec2> newHoleVerts = new ArrayList<>(holeDupRemover);
-                GUI.txtOutput.setText("Duplicate points removed to avoid errors");
-                ArrayList<PolygonVec> holePoints = new ArrayList<>();
-                for(Vec2 v : newHoleVerts)
-                {
-                    holePoints.add(new PolygonVec(v.x, v.y));
-                }
-                if(holePoints.size() < 3)
+                //the parser has already reported the shape it couldn't trace
+                dropped++;
+                continue;
+            }
+            ArrayList<ArrayList<PolygonVec>> loops;
+            if(GUI.parallelContours)
+            {
+                loops = processContoursInParallel(pi, tracedShapes.get(s), progress);
+            }
+            else
+            {
+                loops = processContours(pi, tracedShapes.get(s), progress);
+            }
+            
+            if(loops.get(0).size() < 3)
+            {
+                dropped++;
+                continue;
+            }
+            //create a polygon object for triangulation
+            TriangulatablePolygon poly = new TriangulatablePolygon(loops.get(0));     
+            progress.progress("Polygon created for shape " + (s + 1) + " of " + tracedShapes.size());
+
+            //a hole too small to triangulate is left out, without giving up on the holes after it
+            for(int i = 1; i < loops.size(); i++)
+            {
+                if(loops.get(i).size() < 3)
                 {
-                    break;
+                    continue;
                 }
-                TriangulatablePolygon hole = new TriangulatablePolygon(holePoints);
+                TriangulatablePolygon hole = new TriangulatablePolygon(loops.get(i));
                 poly.addHole(hole);
-                GUI.txtOutput.setText("Hole created in overall polygon");
+                progress.progress("Hole created in polygon");
             }
-        }
 
-        //Triangulate the polygon object
-        PolyDecomposition.triangulate(poly);
-        triangles = poly.getTriangles();
+            //Triangulate the polygon object
+            PolyDecomposition.triangulate(poly, GUI.getProgressListener());
+            List<DelaunayTriangle> shapeTriangles = poly.getTriangles();
+            if(shapeTriangles == null)
+            {
+                dropped++;
+                continue;
+            }
+            triangles.addAll(shapeTriangles);
+            for(TriangulatablePolygon p : polygonize(shapeTriangles, progress))
+            {
+                polygons.add(p);
+            }
+        }
+        if(dropped > 0)
+        {
+            progress.progress(dropped + " of " + tracedShapes.size() + " shapes could not be traced or triangulated and have been left out");
+        }
+        if(polygons.isEmpty())
+        {
+            triangles = null;
+            progress.flush();
+            return;
+        }
+        TriangulatablePolygon[] newPolys = polygons.toArray(new TriangulatablePolygon[polygons.size()]);
 
-        //Take each triangle and add more triangles to it from its neighbours till the seemingly maximum possible polygon is formed (has up to 8 sides and is convex)
-        if(triangles != null)
+        //Turn the finished product into a JSON string with the GSON library
+        Gson gson = new Gson();                                             
+        Vec2[] gsonVertices = null;
+        GsonShape[] shapes = new GsonShape[newPolys.length];
+        for(int i = 0; i < newPolys.length; i++)
         {
-            //array of polygons that will form the new object, same length as triangles
-            TriangulatablePolygon[] polys = new TriangulatablePolygon[triangles.size()];    
-            int polyIndex = 0;
-            boolean[] marked = new boolean[triangles.size()];
-            //prepare the array that will hold the marking state of each triangle (so that they are not processed indefinately)
-            for(int i = 0; i < triangles.size(); i++)                                       
+            gsonVertices = new Vec2[newPolys[i].getVectors().size()];
+            for(int j = 0; j < newPolys[i].getVectors().size(); j++)
             {
-                marked[i] = false;
+                float gsonX = newPolys[i].getVectors().get(j).getXf();
+                float gsonY = newPolys[i].getVectors().get(j).getYf();
+                gsonVertices[j] = new Vec2(gsonX, gsonY);
             }
-            
-            //when this is false, the loop will be exited and the polygonization will be done
-            boolean notDone = true;                                                         
-            while(notDone)
+            //create a new GsonShape object to store all the vertices as a JSON array
+            GsonShape shape = new GsonShape(BodyType.STATIC, gsonVertices); 
+            //add this GsonShape object to the array which will be part of the final GsonObject object
+            shapes[i] = shape;                                              
+        }
+        GsonObject gs = new GsonObject(imgName, imgName, new Vec2(0, 0), shapes);
+        //convert the final GsonObject object to a JSON string
+        json = gson.toJson(gs);                                                
+        System.out.println(json);
+        
+        
+        //TURN INTO BODIES HERE
+        //create the defined body
+        body = Simulation.getWorld().createBody(bodyDef);   
+        for(TriangulatablePolygon p: newPolys)
+        {
+            Vec2[] bodyVertices = new Vec2[p.vectors.size()];
+            for(int i = 0; i < p.getVectors().size(); i++)
             {
-                int currentTri = -1;
-                for(int i = 0; i < triangles.size(); i++)
-                {
-                    //skip any triangle that has been marked as processed
-                    if(marked[i])                                                           
-                    {
-                        continue;
-                    }
-                    currentTri = i;
-                    break;
-                }
-                //for loop is done, break out of the while loop
-                if(currentTri == -1)                                                        
+                float bodyX = p.getVectors().get(i).getXf();
+                float bodyY = p.getVectors().get(i).getYf();
+                bodyVertices[i] = new Vec2(bodyX/WorldScale.RATIO, bodyY/WorldScale.RATIO);
+                if(progress.isDue())
                 {
-                    notDone = false;
-                }
-                else
-                {
-                    ArrayList<PolygonVec> vectors = new ArrayList<>();
-                    //for each vector of each current triangle, add to the arraylist of vectors for a potential new polygon containing this triangle
-                    for(int i = 0; i < triangles.get(currentTri).vectors.length; i++)       
-                    {
-                        vectors.add(new PolygonVec(triangles.get(currentTri).vectors[i].getXf(), triangles.get(currentTri).vectors[i].getYf()));
-                    }
-                    //create a polygon out of the triangle in memory
-                    TriangulatablePolygon currentPoly = new TriangulatablePolygon(vectors); 
-                    //mark this triangle as processed, it will no longer exist
-                    marked[currentTri] = true;                                              
-                    
-                    //for each triangle, add another triangle's vectors to it, and check if this new polygon is valid
-                    for(int i = 0; i < triangles.size(); i++)                               
-                    {
-                        if(marked[i])
-                        {
-                            //this triangle has been marked, so skip it
-                            continue;                                                       
-                        }
-
-                        //add another triangle to the polygon in memory
-                        TriangulatablePolygon newPoly = currentPoly.add(triangles.get(i)); 
-                        if(newPoly == null)
-                        {
-                            //this new polygon is null (for whatever reason) so skip it
-                            continue;                                                       
-                        }
-                        //if polygon is convex, replace original and mark as true
-                        if(newPoly.isConvex())                                              
-                        {
-                            currentPoly = newPoly;
-                            marked[i] = true;
-                        }
-                    }
-                    //add polygon to array of polygons at polyIndex
-                    polys[polyIndex] = currentPoly;                                         
-                    polyIndex++;                                                           
-                    GUI.txtOutput.setText("Polygonized some triangles together!");
+                    progress.progress("Preparing point (" + bodyX + " " + bodyY + ") for display on-screen");
                 }
             }
-            //array of polygons of size polyIndex
-            TriangulatablePolygon[] newPolys = new TriangulatablePolygon[polyIndex];        
-            //Copy the first polygon array to this new array from 0 to polyIndex, cutting out the nulls
-            System.arraycopy(polys, 0, newPolys, 0, polyIndex);                             
+            box.set(bodyVertices, bodyVertices.length);
+            FixtureDef fixtureDef = new FixtureDef();
+            fixtureDef.density = 1;
+            fixtureDef.friction = 0.3f;
+            fixtureDef.shape = box;
+            body.createFixture(fixtureDef);
+        }
+        progress.progress("Body fixtures generated!");
+        progress.flush();
 
-            //Turn the finished product into a JSON string with the GSON library
-            Gson gson = new Gson();                                             
-            Vec2[] gsonVertices = null;
-            GsonShape[] shapes = new GsonShape[newPolys.length];
-            for(int i = 0; i < newPolys.length; i++)
+        //the texture for rendering is uploaded from the image already decoded for parsing
+        this.sizeX = asset.getWidth();
+        this.sizeY = asset.getHeight();
+        this.spr = new Sprite(1.0f, 1.0f, 1.0f, asset);
+    }
+    
+    /**
+     * Take each triangle and add more triangles to it from its neighbours till the seemingly maximum possible polygon is formed (has up to 8 sides and is convex)
+     * 
+     * @param triangles Triangulation of a single shape
+     * @param progress Throttle to report progress through
+     * @return Convex polygons covering the same area as the triangles
+     */
+    private static TriangulatablePolygon[] polygonize(List<DelaunayTriangle> triangles, ProgressThrottle progress)
+    {
+        //array of polygons that will form the new object, same length as triangles
+        TriangulatablePolygon[] polys = new TriangulatablePolygon[triangles.size()];    
+        int polyIndex = 0;
+        boolean[] marked = new boolean[triangles.size()];
+        //prepare the array that will hold the marking state of each triangle (so that they are not processed indefinately)
+        for(int i = 0; i < triangles.size(); i++)                                       
+        {
+            marked[i] = false;
+        }
+        
+        //when this is false, the loop will be exited and the polygonization will be done
+        boolean notDone = true;                                                         
+        while(notDone)
+        {
+            int currentTri = -1;
+            for(int i = 0; i < triangles.size(); i++)
             {
-                gsonVertices = new Vec2[newPolys[i].getVectors().size()];
-                for(int j = 0; j < newPolys[i].getVectors().size(); j++)
+                //skip any triangle that has been marked as processed
+                if(marked[i])                                                           
                 {
-                    float gsonX = newPolys[i].getVectors().get(j).getXf();
-                    float gsonY = newPolys[i].getVectors().get(j).getYf();
-                    //used when the image-doubling technique is used to allow one-pixel points on the image
-                    if(GUI.doubleBuffer)                                        
-                    {
-                        gsonVertices[j] = new Vec2((gsonX/2), (gsonY/2));
-                    }
-                    else
-                    {
-                        gsonVertices[j] = new Vec2(gsonX, gsonY);
-                    }
+                    continue;
                 }
-                //create a new GsonShape object to store all the vertices as a JSON array
-                GsonShape shape = new GsonShape(BodyType.STATIC, gsonVertices); 
-                //add this GsonShape object to the array which will be part of the final GsonObject object
-                shapes[i] = shape;                                              
+                currentTri = i;
+                break;
             }
-            GsonObject gs = new GsonObject(imgName, imgName, new Vec2(0, 0), shapes);
-            //convert the final GsonObject object to a JSON string
-            json = gson.toJson(gs);                                                
-            System.out.println(json);
-            
-            
-            //TURN INTO BODIES HERE
-            //create the defined body
-            body = Simulation.getWorld().createBody(bodyDef);   
-            for(TriangulatablePolygon p: newPolys)
+            //for loop is done, break out of the while loop
+            if(currentTri == -1)                                                        
             {
-                Vec2[] bodyVertices = new Vec2[p.vectors.size()];
-                for(int i = 0; i < p.getVectors().size(); i++)
+                notDone = false;
+            }
+            else
+            {
+                ArrayList<PolygonVec> vectors = new ArrayList<>();
+                //for each vector of each current triangle, add to the arraylist of vectors for a potential new polygon containing this triangle
+                for(int i = 0; i < triangles.get(currentTri).vectors.length; i++)       
                 {
-                    float bodyX = p.getVectors().get(i).getXf();
-                    float bodyY = p.getVectors().get(i).getYf();
-                    if(GUI.doubleBuffer)
+                    vectors.add(new PolygonVec(triangles.get(currentTri).vectors[i].getXf(), triangles.get(currentTri).vectors[i].getYf()));
+                }
+                //create a polygon out of the triangle in memory
+                TriangulatablePolygon currentPoly = new TriangulatablePolygon(vectors); 
+                //mark this triangle as processed, it will no longer exist
+                marked[currentTri] = true;                                              
+                
+                //for each triangle, add another triangle's vectors to it, and check if this new polygon is valid
+                for(int i = 0; i < triangles.size(); i++)                               
+                {
+                    if(marked[i])
                     {
-                        //used when the image-doubling technique is used to allow one-pixel points on the image
-                        bodyVertices[i] = new Vec2((bodyX/2)/WorldScale.RATIO, (bodyY/2)/WorldScale.RATIO);
+                        //this triangle has been marked, so skip it
+                        continue;                                                       
                     }
-                    else
+
+                    //add another triangle to the polygon in memory
+                    TriangulatablePolygon newPoly = currentPoly.add(triangles.get(i)); 
+                    if(newPoly == null)
                     {
-                        bodyVertices[i] = new Vec2(bodyX/WorldScale.RATIO, bodyY/WorldScale.RATIO);
+                        //this new polygon is null (for whatever reason) so skip it
+                        continue;                                                       
                     }
-                    GUI.txtOutput.setText("Preparing point (" + bodyX + " " + bodyY + ") for display on-screen");
+                    //if polygon is convex, replace original and mark as true
+                    if(newPoly.isConvex())                                              
+                    {
+                        currentPoly = newPoly;
+                        marked[i] = true;
+                    }
+                }
+                //add polygon to array of polygons at polyIndex
+                polys[polyIndex] = currentPoly;                                         
+                polyIndex++;                                                           
+                if(progress.isDue())
+                {
+                    progress.progress("Polygonized " + polyIndex + " polygons from " + triangles.size() + " triangles");
                 }
-                box.set(bodyVertices, bodyVertices.length);
-                FixtureDef fixtureDef = new FixtureDef();
-                fixtureDef.density = 1;
-                fixtureDef.friction = 0.3f;
-                fixtureDef.shape = box;
-                body.createFixture(fixtureDef);
             }
-            GUI.txtOutput.setText("Body fixtures generated!");
-
-            //fetch the image from file so that it can be used as a texture for rendering
-            BufferedImage img = null;
-            try
+        }
+        //array of polygons of size polyIndex
+        TriangulatablePolygon[] newPolys = new TriangulatablePolygon[polyIndex];        
+        //Copy the first polygon array to this new array from 0 to polyIndex, cutting out the nulls
+        System.arraycopy(polys, 0, newPolys, 0, polyIndex);                             
+        return newPolys;
+    }
+    
+    /**
+     * Reposition and simplify the outline and holes of a shape found by the parser, one after another
+     * 
+     * @param pi Parser the shape was found by
+     * @param shape Outline and holes of the shape
+     * @param progress Throttle to report progress through
+     * @return Triangulation vectors of the outline followed by those of each hole
+     */
+    private static ArrayList<ArrayList<PolygonVec>> processContours(ParseImage pi, TracedShape shape, ProgressThrottle progress)
+    {
+        Contour vertices = shape.getPoints();
+        if(!pi.isPixelPerfect())
+        {
+            vertices = pi.perfectPoints(vertices);
+            progress.progress("Points repositioned to pixel perfection");
+        }
+        
+        //similar to the above code, for handling holes in the images being parsed
+        ArrayList<Contour> holes = new ArrayList<Contour>();
+        for(Contour holeVertices : shape.getHoles())
+        {
+            if(!pi.isPixelPerfect())
+            {
+                holeVertices = pi.perfectHoles(holeVertices).withoutDuplicates();
+                progress.progress("Points repositioned to pixel perfection");
+            }
+            holes.add(holeVertices);
+        }
+        
+        //simplify the points, the outline and holes together so that a simplifier keeping them from crossing can see all of them
+        ArrayList<Contour> simplified = pi.simplifyShape(vertices, holes);
+        ArrayList<ArrayList<PolygonVec>> loops = new ArrayList<ArrayList<PolygonVec>>(simplified.size());
+        for(Contour loop : simplified)
+        {
+            //remove duplicates from the list of points so that the triangulation doesn't crash
+            loops.add(toPolygonVecs(loop.withoutDuplicates()));
+            progress.progress("Duplicate points removed to avoid errors");
+        }
+        return loops;
+    }
+    
+    /**
+     * Reposition and simplify the outline and every hole of a shape found by the parser at the same time, each contour in its own fork/join task
+     * A simplifier that has to see every loop at once still runs once over all of them, between the repositioning and the removal of duplicates
+     * 
+     * @param pi Parser the shape was found by
+     * @param shape Outline and holes of the shape
+     * @param progress Throttle to report progress through
+     * @return Triangulation vectors of the outline followed by those of each hole
+     */
+    private static ArrayList<ArrayList<PolygonVec>> processContoursInParallel(ParseImage pi, TracedShape shape, ProgressThrottle progress)
+    {
+        //the parser builds its neighbour plane on first use, which the tasks would otherwise all race to do
+        pi.prepareForThreads();
+        boolean whole = pi.simplifiesWholeShapes();
+        
+        ArrayList<Contour> holes = shape.getHoles();
+        ContourTask[] tasks = new ContourTask[holes.size() + 1];
+        tasks[0] = new ContourTask(pi, shape.getPoints(), false, true, !whole, !whole);
+        for(int i = 0; i < holes.size(); i++)
+        {
+            tasks[i + 1] = new ContourTask(pi, holes.get(i), true, true, !whole, !whole);
+        }
+        runTasks(tasks);
+        progress.progress(tasks.length + " contours processed in parallel");
+        
+        if(whole)
+        {
+            ArrayList<Contour> perfectHoles = new ArrayList<Contour>(holes.size());
+            for(int i = 1; i < tasks.length; i++)
             {
-                img = Simulation.getTextureLoader().loadImage(imgName);
+                perfectHoles.add(tasks[i].getContour());
             }
-            catch (IOException ex)
+            ArrayList<Contour> simplified = pi.simplifyShape(tasks[0].getContour(), perfectHoles);
+            for(int i = 0; i < tasks.length; i++)
             {
+                tasks[i] = new ContourTask(pi, simplified.get(i), i > 0, false, false, true);
             }
-            Vec2 lower = new Vec2(0, 0);
-            Vec2 upper = new Vec2(img.getWidth()-1, img.getHeight()-1);
-
-            this.sizeX = img.getWidth();
-            this.sizeY = img.getHeight();
-            this.spr = new Sprite(1.0f, 1.0f, 1.0f, sizeX, sizeY, imgName);
+            runTasks(tasks);
+        }
+        
+        ArrayList<ArrayList<PolygonVec>> loops = new ArrayList<ArrayList<PolygonVec>>(tasks.length);
+        for(ContourTask task : tasks)
+        {
+            loops.add(task.getPoints());
         }
+        progress.progress("Duplicate points removed to avoid errors");
+        return loops;
+    }
+    
+    /**
+     * Run a set of contour tasks on the common fork/join pool and wait for all of them to finish
+     * 
+     * @param tasks Tasks to run
+     */
+    private static void runTasks(final ContourTask[] tasks)
+    {
+        ForkJoinPool.commonPool().invoke(new RecursiveAction()
+        {
+            @Override
+            protected void compute()
+            {
+                invokeAll(tasks);
+            }
+        });
+    }
+    
+    /**
+     * Convert a contour from the parser into the vectors the triangulation works on
+     * 
+     * @param contour Vertices of the outline
+     * @return List of triangulation vectors, one for each vertex
+     */
+    private static ArrayList<PolygonVec> toPolygonVecs(Contour contour)
+    {
+        ArrayList<PolygonVec> points = new ArrayList<PolygonVec>(contour.size());
+        for(int i = 0; i < contour.size(); i++)
+        {
+            points.add(new PolygonVec(contour.getX(i), contour.getY(i)));
+        }
+        return points;
     }
     
     /**
@@ -305,4 +442,79 @@ public class VectorObject extends WorldObject
         }
         glPopMatrix();
     }
+    
+    /**
+     * Takes one contour of the parser through the steps before triangulation, independently of every other contour
+     * The parser's contours are only read, so any number of these can run on the same parser at once
+     */
+    private static class ContourTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        
+        private final ParseImage pi;
+        private final boolean hole;
+        private final boolean reposition;
+        private final boolean simplify;
+        private final boolean finish;
+        private Contour contour;
+        private ArrayList<PolygonVec> points;
+        
+        /**
+         * Declare the steps to take a contour through
+         * 
+         * @param pi Parser the contour was found by
+         * @param contour Vertices of the contour
+         * @param hole Determines if the contour is the outline of a hole
+         * @param reposition Determines if the vertices are moved to pixel perfection, when the parser didn't already trace them that way
+         * @param simplify Determines if the vertices are simplified on their own
+         * @param finish Determines if duplicates are removed and the vertices converted for triangulation
+         */
+        ContourTask(ParseImage pi, Contour contour, boolean hole, boolean reposition, boolean simplify, boolean finish)
+        {
+            this.pi = pi;
+            this.contour = contour;
+            this.hole = hole;
+            this.reposition = reposition;
+            this.simplify = simplify;
+            this.finish = finish;
+        }
+        
+        @Override
+        protected void compute()
+        {
+            if(reposition && !pi.isPixelPerfect())
+            {
+                contour = hole ? pi.perfectHoles(contour).withoutDuplicates() : pi.perfectPoints(contour);
+            }
+            if(simplify)
+            {
+                contour = pi.simplifyMenu(contour);
+            }
+            if(finish)
+            {
+                //remove duplicates from the list of points so that the triangulation doesn't crash
+                points = toPolygonVecs(contour.withoutDuplicates());
+            }
+        }
+        
+        /**
+         * Get the vertices of the contour after the steps taken so far
+         * 
+         * @return Vertices of the contour
+         */
+        Contour getContour()
+        {
+            return contour;
+        }
+        
+        /**
+         * Get the triangulation vectors of the finished contour
+         * 
+         * @return Triangulation vectors, or null if the contour wasn't finished
+         */
+        ArrayList<PolygonVec> getPoints()
+        {
+            return points;
+        }
+    }
 }
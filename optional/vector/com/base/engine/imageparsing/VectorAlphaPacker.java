@@ -0,0 +1,45 @@
+package com.base.engine.imageparsing;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Packs pixels a full vector at a time with the incubating vector API
+ * Each vector of pixels is compared against the threshold in one go and its lane mask is dropped straight into the word.
+ * Lives outside the main source tree so the default build never needs the incubator module. It is compiled on its own against the main classes
+ * and only loaded when found on the classpath of a JVM started with --add-modules jdk.incubator.vector, otherwise the mask falls back to ScalarAlphaPacker
+ *
+ * @author Jordan
+ */
+final class VectorAlphaPacker implements AlphaPacker
+{
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public long pack(int[] data, int index, int count, int alphaMask, int shift, int threshold)
+    {
+        long word = 0;
+        int lanes = SPECIES.length();
+        int i = 0;
+        for(; i + lanes <= count; i += lanes)
+        {
+            VectorMask<Integer> above = IntVector.fromArray(SPECIES, data, index + i)
+                    .and(alphaMask)
+                    .lanewise(VectorOperators.LSHR, shift)
+                    .compare(VectorOperators.GT, threshold);
+            word |= above.toLong() << i;
+        }
+
+        //finish off the pixels that don't fill a whole vector
+        for(; i < count; i++)
+        {
+            if(((data[index + i] & alphaMask) >>> shift) > threshold)
+            {
+                word |= 1L << i;
+            }
+        }
+        return word;
+    }
+}